@@ -0,0 +1,262 @@
+// GameBenchmark.java
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+// Repeatable timings for the game loop's hot paths.
+// java -Djava.awt.headless=true GameBenchmark [-quick] [name filters...]
+// Each benchmark reports mean time per op, allocated bytes per op and GC collections per iteration.
+public class GameBenchmark {
+    private static final int WIDTH = 784;
+    private static final int HEIGHT = 561;
+
+    private static int warmupIterations = 5;
+    private static int measureIterations = 10;
+    private static long iterationNanos = 500_000_000L;
+    private static final List<String> filters = new ArrayList<>();
+    private static long sink;
+    // Built once up front, as the loader does for the game; ship 0 throughout
+    private static CollisionMasks masks;
+
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    interface Benchmark {
+        void setup();
+        void run();
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-quick")) {
+                warmupIterations = 2;
+                measureIterations = 3;
+                iterationNanos = 200_000_000L;
+            } else if (args[i].equals("-prof")) {
+                i++; // allocation/GC columns are always on; accepted for JMH habits
+            } else {
+                filters.add(args[i]);
+            }
+        }
+
+        masks = ResourceManager.getCollisionMasks(0);
+        System.out.printf("%-32s %14s %12s %10s%n", "benchmark", "ns/op", "alloc B/op", "gc/iter");
+
+        for (int entities : new int[] { 10, 1_000, 50_000 }) {
+            run("tick/" + entities, 1, tickBenchmark(entities));
+        }
+
+        // Each scene with the mask narrowphase, then with bounding boxes alone for comparison
+        for (boolean pixels : new boolean[] { true, false }) {
+            String suffix = pixels ? "" : "-boxes";
+            run("collisions/sparse" + suffix, 1, collisionBenchmark(50, 50, 0, 0, WIDTH, HEIGHT, pixels));
+            run("collisions/uniform" + suffix, 1, collisionBenchmark(1_000, 1_000, 0, 0, WIDTH, HEIGHT, pixels));
+            run("collisions/dense-wave" + suffix, 1, collisionBenchmark(200, 5_000, 0, 0, WIDTH, HEIGHT, pixels));
+            run("collisions/clustered" + suffix, 1, collisionBenchmark(500, 2_000, 300, 200, 150, 150, pixels));
+        }
+        run("narrowphase/1024-pairs", 1, narrowphaseBenchmark());
+
+        run("level/spawn-curve", 1_000, levelCurveBenchmark());
+
+        for (int entities : new int[] { 10, 1_000, 10_000 }) {
+            run("render/" + entities, 5, renderBenchmark(entities));
+        }
+        System.out.println("(sink " + sink + ")");
+    }
+
+    // One world tick with the population topped back up before it. The overlapping fill kills a whole
+    // level's worth of enemies in one tick, so setup also ends the level transition that follows;
+    // otherwise most ticks would be paused ones that return straight away.
+    private static Benchmark tickBenchmark(int entities) {
+        Random random = new Random(42);
+        GameWorld world = new GameWorld(WIDTH, HEIGHT, 3, 0, masks, InputSource.NONE, GameEvents.NONE);
+        return new Benchmark() {
+            @Override
+            public void setup() {
+                world.getPlayer().activateInvincibility(Integer.MAX_VALUE);
+                world.resumePlay();
+                fill(world.getStore(), entities / 2, entities - entities / 2, random, 0, 0, WIDTH, HEIGHT);
+            }
+
+            @Override
+            public void run() {
+                if (world.isLevelTransition()) {
+                    throw new IllegalStateException("tick benchmark would measure a paused tick");
+                }
+                world.tick();
+            }
+        };
+    }
+
+    // One collision pass; health is restored before each pass so every op sees the same hits
+    private static Benchmark collisionBenchmark(int enemies, int projectiles, int x, int y, int w, int h,
+                                                boolean pixels) {
+        GameWorld world = new GameWorld(WIDTH, HEIGHT, 3, 0, masks, InputSource.NONE, GameEvents.NONE);
+        world.pixelCollisions = pixels;
+        world.getPlayer().activateInvincibility(Integer.MAX_VALUE);
+        EntityStore store = world.getStore();
+        fill(store, enemies, projectiles, new Random(7), x, y, w, h);
+        int[] enemyHealth = store.enemies.health.clone();
+        int[] projectileHealth = store.projectiles.health.clone();
+        return new Benchmark() {
+            @Override
+            public void setup() {
+                System.arraycopy(enemyHealth, 0, store.enemies.health, 0, store.enemies.size);
+                System.arraycopy(projectileHealth, 0, store.projectiles.health, 0, store.projectiles.size);
+            }
+
+            @Override
+            public void run() {
+                world.handleCollisions();
+            }
+        };
+    }
+
+    // Mask tests alone: 1024 enemy/ship placements whose boxes overlap, about half of them real hits
+    private static Benchmark narrowphaseBenchmark() {
+        Random random = new Random(11);
+        CollisionMask ship = masks.ship;
+        CollisionMask[] enemies = new CollisionMask[1024];
+        int[] dx = new int[enemies.length];
+        int[] dy = new int[enemies.length];
+        for (int i = 0; i < enemies.length; i++) {
+            int type = random.nextInt(3);
+            enemies[i] = masks.enemy(type);
+            dx[i] = random.nextInt(Player.WIDTH + Enemy.size(type) - 1) - Enemy.size(type) + 1;
+            dy[i] = random.nextInt(Player.HEIGHT + Enemy.size(type) - 1) - Enemy.size(type) + 1;
+        }
+        return new Benchmark() {
+            @Override
+            public void setup() {
+            }
+
+            @Override
+            public void run() {
+                int hits = 0;
+                for (int i = 0; i < enemies.length; i++) {
+                    if (CollisionMask.overlaps(enemies[i], dx[i], dy[i], ship, 0, 0)) {
+                        hits++;
+                    }
+                }
+                sink += hits;
+            }
+        };
+    }
+
+    // Walks a LevelManager through 50 levels evaluating the spawn interval and speed curves
+    private static Benchmark levelCurveBenchmark() {
+        LevelManager levels = new LevelManager(5);
+        return new Benchmark() {
+            @Override
+            public void setup() {
+            }
+
+            @Override
+            public void run() {
+                levels.reset();
+                long total = 0;
+                for (int i = 0; i < 50; i++) {
+                    total += levels.getAdjustedSpawnInterval() + levels.getEnemySpeed();
+                    levels.levelUp();
+                }
+                sink += total;
+            }
+        };
+    }
+
+    // One full frame drawn into an offscreen image
+    private static Benchmark renderBenchmark(int entities) {
+        GameWorld world = new GameWorld(WIDTH, HEIGHT, 3, 0, masks, InputSource.NONE, GameEvents.NONE);
+        fill(world.getStore(), entities / 2, entities - entities / 2, new Random(3), 0, 0, WIDTH, HEIGHT);
+        WorldSnapshot snapshot = new WorldSnapshot();
+        world.capture(snapshot);
+        GameRenderer renderer = new GameRenderer("Bench", 3, 0);
+        BufferedImage frame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+        return new Benchmark() {
+            @Override
+            public void setup() {
+            }
+
+            @Override
+            public void run() {
+                renderer.render(g, snapshot, 0.5, WIDTH, HEIGHT);
+            }
+        };
+    }
+
+    private static void fill(EntityStore store, int enemies, int projectiles, Random random,
+                             int x, int y, int w, int h) {
+        while (store.enemies.size < enemies) {
+            Enemy.spawn(store.enemies, x + random.nextInt(w), y + random.nextInt(h), 2, random.nextInt(3));
+        }
+        while (store.projectiles.size < projectiles) {
+            Projectile.spawn(store.projectiles, x + random.nextInt(w), y + random.nextInt(h));
+        }
+    }
+
+    private static void run(String name, int batch, Benchmark benchmark) {
+        if (!filters.isEmpty() && filters.stream().noneMatch(name::contains)) {
+            return;
+        }
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(benchmark, batch);
+        }
+        double[] nanos = new double[measureIterations];
+        double bytes = 0;
+        double collections = 0;
+        for (int i = 0; i < measureIterations; i++) {
+            double[] result = iteration(benchmark, batch);
+            nanos[i] = result[0];
+            bytes += result[1];
+            collections += result[2];
+        }
+
+        double mean = 0;
+        for (double n : nanos) mean += n;
+        mean /= nanos.length;
+        double variance = 0;
+        for (double n : nanos) variance += (n - mean) * (n - mean);
+        double error = nanos.length > 1 ? Math.sqrt(variance / (nanos.length - 1)) : 0;
+
+        System.out.printf(Locale.ROOT, "%-32s %9.1f +-%3.0f%% %12.1f %10.1f%n", name, mean,
+                mean > 0 ? 100 * error / mean : 0, bytes / measureIterations, collections / measureIterations);
+    }
+
+    // Returns {ns/op, bytes/op, gc collections}; setup time is excluded from both measurements
+    private static double[] iteration(Benchmark benchmark, int batch) {
+        long thread = Thread.currentThread().getId();
+        long timed = 0;
+        long allocated = 0;
+        long ops = 0;
+        long gcBefore = gcCount();
+        long end = System.nanoTime() + iterationNanos;
+
+        while (System.nanoTime() < end) {
+            benchmark.setup();
+            long allocBefore = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            for (int i = 0; i < batch; i++) {
+                benchmark.run();
+            }
+            timed += System.nanoTime() - start;
+            allocated += threads.getThreadAllocatedBytes(thread) - allocBefore;
+            ops += batch;
+        }
+        return new double[] { (double) timed / ops, (double) allocated / ops, gcCount() - gcBefore };
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+}
@@ -0,0 +1,191 @@
+// MixerCheck.java
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+// Renders AudioMixer offline, with no thread or audio device, into a byte buffer and checks what comes
+// out: exact mixing, hard clipping instead of wraparound, voice stealing by priority and age, coalescing,
+// and no allocation on the mixing path. Each test sound is a constant level, so the level of the mix
+// tells exactly which voices are playing.
+// java -Djava.awt.headless=true MixerCheck  prints one line per check and exits non-zero if any failed
+public class MixerCheck {
+    private static final int FRAMES = AudioMixer.BLOCK_FRAMES;
+    // A second of sound, so no voice runs out during a check
+    private static final int SOUND_FRAMES = AudioMixer.SAMPLE_RATE;
+
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final byte[] block = new byte[FRAMES * AudioMixer.CHANNELS * 2];
+    private static boolean allPassed = true;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        checkMixing();
+        checkClipping();
+        checkStealing();
+        checkCoalescing();
+        checkAllocation();
+        System.exit(allPassed ? 0 : 1);
+    }
+
+    private static void checkMixing() {
+        AudioMixer mixer = new AudioMixer(8);
+        short[] samples = new short[FRAMES * AudioMixer.CHANNELS];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) (12_000 * Math.sin(i * 0.05));
+        }
+        mixer.play(new SoundBuffer("sine", samples), 1f, 0);
+        mixer.play(level("quiet", 100), 0.5f, 0);
+        mixer.render(block, FRAMES);
+        boolean exact = true;
+        for (int i = 0; i < samples.length; i++) {
+            exact &= sample(i) == samples[i] + 50;
+        }
+        check("voices sum exactly", exact, "");
+
+        mixer.setMasterGain(0.5f);
+        mixer.render(block, FRAMES);
+        check("master gain scales the mix", sample(0) == 25, "level " + sample(0));
+
+        AudioMixer ended = new AudioMixer(8);
+        ended.play(new SoundBuffer("short", new short[] { 1000, 1000, 1000, 1000 }), 1f, 0);
+        ended.render(block, FRAMES);
+        boolean silentAfter = sample(0) == 1000 && sample(3) == 1000 && sample(4) == 0
+                && sample(FRAMES * AudioMixer.CHANNELS - 1) == 0;
+        ended.render(block, FRAMES);
+        check("finished voice goes silent and frees", silentAfter && ended.getActiveVoices() == 0, "");
+    }
+
+    private static void checkClipping() {
+        AudioMixer mixer = new AudioMixer(8);
+        // Eight full-ish square waves in phase: the sum is five times what 16 bits can hold
+        for (int v = 0; v < 8; v++) {
+            short[] samples = new short[FRAMES * AudioMixer.CHANNELS];
+            for (int i = 0; i < samples.length; i++) {
+                samples[i] = (short) ((i / 32) % 2 == 0 ? 20_000 : -20_000);
+            }
+            mixer.play(new SoundBuffer("square" + v, samples), 1f, 0);
+        }
+        mixer.render(block, FRAMES);
+        boolean clipped = true;
+        int min = 0;
+        int max = 0;
+        for (int i = 0; i < FRAMES * AudioMixer.CHANNELS; i++) {
+            int expected = (i / 32) % 2 == 0 ? Short.MAX_VALUE : Short.MIN_VALUE;
+            clipped &= sample(i) == expected;
+            min = Math.min(min, sample(i));
+            max = Math.max(max, sample(i));
+        }
+        check("overload clips instead of wrapping", clipped, "range " + min + ".." + max);
+    }
+
+    private static void checkStealing() {
+        SoundBuffer[] sounds = new SoundBuffer[7];
+        for (int i = 0; i < sounds.length; i++) {
+            sounds[i] = level("level" + i, 16 << i);
+        }
+        AudioMixer mixer = new AudioMixer(4);
+        // One new voice per block, so each has played a different length
+        int[] priorities = { 3, 3, 3, 1 };
+        for (int i = 0; i < 4; i++) {
+            mixer.play(sounds[i], 1f, priorities[i]);
+            mixer.render(block, FRAMES);
+        }
+        check("pool fills without stealing", playing(sounds, 0, 1, 2, 3) && mixer.getStolenCount() == 0, "");
+
+        mixer.play(sounds[4], 1f, 2);
+        mixer.render(block, FRAMES);
+        check("lowest priority voice is stolen", playing(sounds, 0, 1, 2, 4) && mixer.getStolenCount() == 1,
+                "playing " + describe(sounds));
+
+        mixer.play(sounds[5], 1f, 0);
+        mixer.render(block, FRAMES);
+        check("lower priority sound is dropped", playing(sounds, 0, 1, 2, 4) && mixer.getDroppedCount() == 1,
+                "playing " + describe(sounds));
+
+        mixer.play(sounds[5], 1f, 3);
+        mixer.render(block, FRAMES);
+        mixer.play(sounds[6], 1f, 3);
+        mixer.render(block, FRAMES);
+        check("oldest of equal priority is stolen", playing(sounds, 1, 2, 5, 6) && mixer.getStolenCount() == 3,
+                "playing " + describe(sounds));
+        check("voice counters add up", mixer.getPlayedCount() == 7 && mixer.getActiveVoices() == 4,
+                mixer.getPlayedCount() + " played, " + mixer.getActiveVoices() + " active");
+    }
+
+    private static void checkCoalescing() {
+        AudioMixer mixer = new AudioMixer(8);
+        SoundBuffer hit = level("hit", 1000);
+        mixer.play(hit, 0.5f, 0);
+        mixer.play(hit, 1f, 0);
+        mixer.render(block, FRAMES);
+        int first = sample(0);
+        // Again within the same game tick: merged into the voice that is already playing
+        mixer.play(hit, 1f, 0);
+        mixer.render(block, FRAMES);
+        check("repeats within a tick share a voice", first == 1000 && sample(0) == 1000
+                        && mixer.getPlayedCount() == 1 && mixer.getCoalescedCount() == 2,
+                mixer.getPlayedCount() + " played, " + mixer.getCoalescedCount() + " coalesced");
+    }
+
+    private static void checkAllocation() {
+        SoundBuffer[] sounds = new SoundBuffer[12];
+        for (int i = 0; i < sounds.length; i++) {
+            sounds[i] = level("sfx" + i, 200 + i);
+        }
+        AudioMixer mixer = new AudioMixer(8);
+        // Warm up first so class loading and compilation don't count
+        for (int round = 0; round < 2; round++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 20_000; i++) {
+                mixer.play(sounds[i % sounds.length], 1f, i % 4);
+                mixer.play(sounds[(i * 7) % sounds.length], 0.5f, i % 3);
+                mixer.render(block, FRAMES);
+            }
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+            if (round == 1) {
+                check("play and render allocate nothing", allocated == 0, allocated + " bytes over 20000 blocks");
+            }
+        }
+    }
+
+    private static SoundBuffer level(String name, int level) {
+        short[] samples = new short[SOUND_FRAMES * AudioMixer.CHANNELS];
+        Arrays.fill(samples, (short) level);
+        return new SoundBuffer(name, samples);
+    }
+
+    private static int sample(int index) {
+        return (short) ((block[2 * index] & 0xFF) | (block[2 * index + 1] << 8));
+    }
+
+    // Whether the last block, in every sample, holds exactly the given sounds
+    private static boolean playing(SoundBuffer[] sounds, int... which) {
+        int expected = 0;
+        for (int i : which) {
+            expected += sounds[i].samples[0];
+        }
+        for (int i = 0; i < FRAMES * AudioMixer.CHANNELS; i++) {
+            if (sample(i) != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String describe(SoundBuffer[] sounds) {
+        StringBuilder names = new StringBuilder();
+        for (SoundBuffer sound : sounds) {
+            if ((sample(0) & sound.samples[0]) != 0) {
+                names.append(names.length() == 0 ? "" : " ").append(sound.name);
+            }
+        }
+        return names.toString();
+    }
+
+    private static void check(String name, boolean passed, String detail) {
+        allPassed &= passed;
+        System.out.printf("%-44s %s%s%n", name, passed ? "ok" : "FAILED",
+                detail.isEmpty() ? "" : "  (" + detail + ")");
+    }
+}
@@ -0,0 +1,511 @@
+// ScoreCheck.java
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+// Runs JdbcScoreStore (ScoreWriter over a ConnectionPool) against an in-memory game_results table
+// served by a fake JDBC driver, so the write-behind path can be checked without a MySQL server, then
+// pushes a small ConnectionPool of its own to its limits.
+// java ScoreCheck  prints one line per check and exits non-zero if any failed
+public class ScoreCheck {
+    private static final String URL = "jdbc:memory:scores";
+    private static final int RESULTS = 100;
+    // ScoreWriter.MAX_BATCH
+    private static final int MAX_BATCH = 32;
+    private static final long WAIT_MS = 10_000;
+    // JdbcScoreStore's pool size and ScoreWriter.INSERT_SQL
+    private static final int STORE_POOL_MAX = 4;
+    private static final String INSERT_SQL =
+            "INSERT INTO game_results (player_name, score, level, difficulty, achieved_on) VALUES (?, ?, ?, ?, ?)";
+    private static final long BORROW_TIMEOUT_MS = 250;
+
+    private static boolean allPassed = true;
+
+    public static void main(String[] args) throws Exception {
+        MemoryDatabase db = new MemoryDatabase();
+        DriverManager.registerDriver(db);
+
+        AtomicInteger saved = new AtomicInteger();
+        JdbcScoreStore store = new JdbcScoreStore(URL, "", "", results -> saved.addAndGet(results.size()));
+        store.initialize();
+
+        // The first batch fails, so the writer backs off while the rest queue up behind it
+        db.failBatches.set(1);
+        long start = System.nanoTime();
+        boolean accepted = true;
+        for (int i = 0; i < RESULTS; i++) {
+            accepted &= store.save(result(i));
+        }
+        long submitNanos = System.nanoTime() - start;
+        check("save accepts without waiting", accepted,
+                String.format(Locale.ROOT, "%d results queued in %.2f ms", RESULTS, submitNanos / 1e6));
+
+        waitFor(() -> saved.get() >= RESULTS);
+        check("every result written once", db.rowCount() == RESULTS && db.distinctScores() == RESULTS
+                && saved.get() == RESULTS, db.rowCount() + " rows, " + saved.get() + " reported saved");
+        check("failed batch retried and rolled back", db.batchFailures.get() == 1 && db.rollbacks.get() >= 1,
+                db.batchFailures.get() + " failure(s), " + db.rollbacks.get() + " rollback(s)");
+        int maxBatches = 1 + (RESULTS - 1 + MAX_BATCH - 1) / MAX_BATCH;
+        check("results written in batches", db.batches.get() <= maxBatches && db.largestBatch.get() <= MAX_BATCH,
+                db.batches.get() + " batches, largest " + db.largestBatch.get());
+        check("pool reuses connections and statements", db.connectionCount() <= STORE_POOL_MAX
+                && db.insertPrepares.get() <= db.connectionCount(),
+                db.connectionCount() + " connection(s), insert prepared " + db.insertPrepares.get() + " time(s)");
+
+        List<GameResult> top = store.top("Hard", 5);
+        boolean ordered = top.size() == 5;
+        for (int i = 0; i < top.size(); i++) {
+            ordered &= top.get(i).getDifficulty().equals("Hard")
+                    && (i == 0 || top.get(i - 1).getScore() >= top.get(i).getScore());
+        }
+        check("top reads back best first", ordered && top.get(0).getScore() == score(RESULTS - 1),
+                top.isEmpty() ? "no results" : "best " + top.get(0).getScore());
+
+        // Whatever is still queued at close is flushed before it returns
+        for (int i = RESULTS; i < RESULTS + 10; i++) {
+            store.save(result(i));
+        }
+        store.close();
+        check("close flushes the queue", db.rowCount() == RESULTS + 10, db.rowCount() + " rows");
+        check("save refused after close", !store.save(result(0)), "");
+        check("close releases every connection", db.openConnections() == 0, db.openConnections() + " left open");
+
+        checkPool(db);
+
+        System.exit(allPassed ? 0 : 1);
+    }
+
+    // A pool of its own, small enough to exhaust
+    private static void checkPool(MemoryDatabase db) throws Exception {
+        ConnectionPool pool = new ConnectionPool(URL, "", "", 0, 2, 60_000, BORROW_TIMEOUT_MS);
+        int before = db.connectionCount();
+
+        Connection a = pool.getConnection();
+        Connection b = pool.getConnection();
+        long start = System.nanoTime();
+        boolean timedOut = false;
+        try {
+            pool.getConnection().close();
+        } catch (SQLException e) {
+            timedOut = true;
+        }
+        long waitedMs = (System.nanoTime() - start) / 1_000_000L;
+        check("borrow waits, then fails, when exhausted", timedOut && waitedMs >= BORROW_TIMEOUT_MS / 2,
+                "gave up after " + waitedMs + " ms");
+
+        // An uncommitted insert is rolled back when the connection goes back
+        a.setAutoCommit(false);
+        try (PreparedStatement stmt = a.prepareStatement(INSERT_SQL)) {
+            bind(stmt, result(-1));
+            stmt.addBatch();
+            stmt.executeBatch();
+        }
+        int rows = db.rowCount();
+        a.close();
+        boolean refused = false;
+        try {
+            a.createStatement();
+        } catch (SQLException e) {
+            refused = true;
+        }
+        check("returned lease is rolled back and refused", refused && db.rowCount() == rows, "");
+
+        int prepares = db.insertPrepares.get();
+        Connection c = pool.getConnection();
+        c.prepareStatement(INSERT_SQL).close();
+        c.close();
+        check("borrow reuses the idle connection", pool.getCreatedCount() == 2 && db.connectionCount() == before + 2,
+                pool.getCreatedCount() + " created");
+        check("prepared statement reused across borrows", db.insertPrepares.get() == prepares,
+                (db.insertPrepares.get() - prepares) + " new prepare(s)");
+        b.close();
+
+        // Many borrowers contending for two connections
+        Thread[] threads = new Thread[8];
+        AtomicInteger failures = new AtomicInteger();
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    try (Connection conn = pool.getConnection()) {
+                        conn.getAutoCommit();
+                    } catch (SQLException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        check("contended borrows stay within the limit", failures.get() == 0 && pool.getCreatedCount() == 2
+                && pool.getActiveCount() == 0 && pool.getIdleCount() == 2,
+                failures.get() + " failure(s), " + pool.getCreatedCount() + " created, max wait "
+                        + String.format(Locale.ROOT, "%.2f ms", pool.getMaxWaitMillis()));
+
+        // Connections the server dropped while idle are replaced, not handed out
+        db.dropConnections();
+        try (Connection conn = pool.getConnection()) {
+            conn.getAutoCommit();
+        }
+        check("dead idle connections are replaced", pool.getValidationFailures() >= 1 && pool.getCreatedCount() == 3,
+                pool.getValidationFailures() + " failed validation(s), " + pool.getCreatedCount() + " created");
+
+        pool.close();
+        check("pool close closes idle connections", db.openConnections() == 0, db.openConnections() + " left open");
+    }
+
+    private static void bind(PreparedStatement stmt, GameResult result) throws SQLException {
+        stmt.setString(1, result.getPlayerName());
+        stmt.setInt(2, result.getScore());
+        stmt.setInt(3, result.getLevel());
+        stmt.setString(4, result.getDifficulty());
+        stmt.setTimestamp(5, new Timestamp(result.getAchievedOn()));
+    }
+
+    private static GameResult result(int i) {
+        return new GameResult("player" + i, score(i), 1 + i % 5, i % 2 == 0 ? "Easy" : "Hard", 1_000_000L * i);
+    }
+
+    private static int score(int i) {
+        return 10 * (i + 1);
+    }
+
+    private static void check(String name, boolean passed, String detail) {
+        allPassed &= passed;
+        System.out.printf("%-44s %s%s%n", name, passed ? "ok" : "FAILED",
+                detail.isEmpty() ? "" : "  (" + detail + ")");
+    }
+
+    interface Condition {
+        boolean holds();
+    }
+
+    private static void waitFor(Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MS;
+        while (!condition.holds() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    // Just enough of a JDBC driver for JdbcScoreStore: one game_results table kept in a list,
+    // transactions, batches, and the two SELECTs top() issues. Counts what the store asks of it.
+    static class MemoryDatabase implements Driver {
+        private static final String[] COLUMNS = { "player_name", "score", "level", "difficulty", "achieved_on" };
+
+        private final List<Object[]> table = new ArrayList<>();
+        private final List<MemoryConnection> connections = new ArrayList<>();
+        final AtomicInteger insertPrepares = new AtomicInteger();
+        final AtomicInteger failBatches = new AtomicInteger();
+        final AtomicInteger batchFailures = new AtomicInteger();
+        final AtomicInteger batches = new AtomicInteger();
+        final AtomicInteger largestBatch = new AtomicInteger();
+        final AtomicInteger rollbacks = new AtomicInteger();
+
+        synchronized int rowCount() {
+            return table.size();
+        }
+
+        synchronized int connectionCount() {
+            return connections.size();
+        }
+
+        synchronized int openConnections() {
+            int open = 0;
+            for (MemoryConnection connection : connections) {
+                if (!connection.closed) {
+                    open++;
+                }
+            }
+            return open;
+        }
+
+        // As if the server had timed out every connection: still open, but no longer valid
+        synchronized void dropConnections() {
+            for (MemoryConnection connection : connections) {
+                connection.valid = false;
+            }
+        }
+
+        synchronized int distinctScores() {
+            Set<Object> scores = new HashSet<>();
+            for (Object[] row : table) {
+                scores.add(row[1]);
+            }
+            return scores.size();
+        }
+
+        private synchronized void insert(List<Object[]> rows) {
+            table.addAll(rows);
+        }
+
+        private synchronized List<Object[]> select(String difficulty, int limit) {
+            List<Object[]> rows = new ArrayList<>();
+            for (Object[] row : table) {
+                if (difficulty == null || difficulty.equals(row[3])) {
+                    rows.add(row);
+                }
+            }
+            rows.sort(Comparator.comparingInt((Object[] row) -> (Integer) row[1]).reversed());
+            return rows.subList(0, Math.min(limit, rows.size()));
+        }
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            MemoryConnection connection = new MemoryConnection();
+            synchronized (this) {
+                connections.add(connection);
+            }
+            return proxy(Connection.class, connection);
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith("jdbc:memory:");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() { return 1; }
+        @Override
+        public int getMinorVersion() { return 0; }
+        @Override
+        public boolean jdbcCompliant() { return false; }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+            return type.cast(Proxy.newProxyInstance(ScoreCheck.class.getClassLoader(), new Class<?>[] { type },
+                    (proxy, method, args) -> method.getDeclaringClass() == Object.class
+                            ? objectMethod(proxy, method, args) : handler.invoke(proxy, method, args)));
+        }
+
+        private static Object objectMethod(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "equals": return proxy == args[0];
+                case "hashCode": return System.identityHashCode(proxy);
+                default: return proxy.getClass().getSimpleName();
+            }
+        }
+
+        private static SQLException unsupported(Method method) {
+            return new SQLFeatureNotSupportedException("MemoryDatabase does not support " + method.getName());
+        }
+
+        private class MemoryConnection implements InvocationHandler {
+            volatile boolean closed = false;
+            volatile boolean valid = true;
+            private boolean autoCommit = true;
+            // Rows inserted since the last commit
+            private final List<Object[]> uncommitted = new ArrayList<>();
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+                String name = method.getName();
+                if (name.equals("close")) {
+                    closed = true;
+                    return null;
+                }
+                if (name.equals("isClosed")) {
+                    return closed;
+                }
+                if (closed) {
+                    throw new SQLException("Connection is closed");
+                }
+                switch (name) {
+                    case "isValid":
+                        return valid;
+                    case "getAutoCommit":
+                        return autoCommit;
+                    case "setAutoCommit":
+                        if ((Boolean) args[0] && !autoCommit) {
+                            commit();
+                        }
+                        autoCommit = (Boolean) args[0];
+                        return null;
+                    case "commit":
+                        commit();
+                        return null;
+                    case "rollback":
+                        uncommitted.clear();
+                        rollbacks.incrementAndGet();
+                        return null;
+                    case "createStatement":
+                        if (args == null) {
+                            return proxy(Statement.class, new MemoryStatement(this, null));
+                        }
+                        break;
+                    case "prepareStatement":
+                        if (args.length == 1) {
+                            if (((String) args[0]).startsWith("INSERT")) {
+                                insertPrepares.incrementAndGet();
+                            }
+                            return proxy(PreparedStatement.class, new MemoryStatement(this, (String) args[0]));
+                        }
+                        break;
+                    default:
+                        break;
+                }
+                throw unsupported(method);
+            }
+
+            void commit() {
+                insert(uncommitted);
+                uncommitted.clear();
+            }
+
+            void write(List<Object[]> rows) {
+                if (autoCommit) {
+                    insert(rows);
+                } else {
+                    uncommitted.addAll(rows);
+                }
+            }
+        }
+
+        private class MemoryStatement implements InvocationHandler {
+            private final MemoryConnection connection;
+            private final String sql;
+            private final Map<Integer, Object> parameters = new TreeMap<>();
+            private final List<Object[]> batch = new ArrayList<>();
+            private boolean closed = false;
+
+            MemoryStatement(MemoryConnection connection, String sql) {
+                this.connection = connection;
+                this.sql = sql;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+                String name = method.getName();
+                if (name.equals("close")) {
+                    closed = true;
+                    return null;
+                }
+                if (name.equals("isClosed")) {
+                    return closed;
+                }
+                if (closed) {
+                    throw new SQLException("Statement is closed");
+                }
+                switch (name) {
+                    case "execute":
+                        if (args.length == 1 && ((String) args[0]).startsWith("CREATE TABLE IF NOT EXISTS game_results")) {
+                            return false;
+                        }
+                        break;
+                    case "setString":
+                    case "setInt":
+                    case "setTimestamp":
+                        parameters.put((Integer) args[0], args[1]);
+                        return null;
+                    case "clearParameters":
+                        parameters.clear();
+                        return null;
+                    case "clearBatch":
+                        batch.clear();
+                        return null;
+                    case "addBatch":
+                        if (args == null && sql.startsWith("INSERT INTO game_results")) {
+                            batch.add(parameters.values().toArray());
+                            return null;
+                        }
+                        break;
+                    case "executeBatch":
+                        return executeBatch();
+                    case "executeQuery":
+                        if (args == null && sql.startsWith("SELECT")) {
+                            return executeQuery();
+                        }
+                        break;
+                    default:
+                        break;
+                }
+                throw unsupported(method);
+            }
+
+            private int[] executeBatch() throws SQLException {
+                List<Object[]> rows = new ArrayList<>(batch);
+                batch.clear();
+                if (failBatches.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                    batchFailures.incrementAndGet();
+                    throw new SQLException("Simulated write failure");
+                }
+                connection.write(rows);
+                batches.incrementAndGet();
+                largestBatch.accumulateAndGet(rows.size(), Math::max);
+                int[] counts = new int[rows.size()];
+                Arrays.fill(counts, 1);
+                return counts;
+            }
+
+            private ResultSet executeQuery() {
+                boolean filtered = sql.contains("WHERE difficulty = ?");
+                String difficulty = filtered ? (String) parameters.get(1) : null;
+                int limit = (Integer) parameters.get(filtered ? 2 : 1);
+                return proxy(ResultSet.class, new MemoryResultSet(select(difficulty, limit)));
+            }
+        }
+
+        private static class MemoryResultSet implements InvocationHandler {
+            private final List<Object[]> rows;
+            private int cursor = -1;
+
+            MemoryResultSet(List<Object[]> rows) {
+                this.rows = new ArrayList<>(rows);
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+                switch (method.getName()) {
+                    case "next":
+                        return ++cursor < rows.size();
+                    case "close":
+                        return null;
+                    case "getString":
+                    case "getInt":
+                    case "getTimestamp":
+                        if (args[0] instanceof String) {
+                            return rows.get(cursor)[column((String) args[0])];
+                        }
+                        break;
+                    default:
+                        break;
+                }
+                throw unsupported(method);
+            }
+
+            private static int column(String name) throws SQLException {
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    if (COLUMNS[i].equals(name)) {
+                        return i;
+                    }
+                }
+                throw new SQLException("No column " + name);
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+// ActiveRenderer.java
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.awt.image.VolatileImage;
+
+// Draws frames straight from the game loop thread instead of waiting for Swing to repaint.
+// Enable with -Djetgame.activeRender=true
+public class ActiveRenderer {
+    public interface Painter {
+        void paint(Graphics2D g, int width, int height);
+    }
+
+    private final Canvas canvas = new Canvas();
+    private final Painter painter;
+    private BufferStrategy strategy;
+    private boolean strategyUnavailable = false;
+    private VolatileImage backBuffer;
+
+    public ActiveRenderer(Painter painter) {
+        this.painter = painter;
+        canvas.setIgnoreRepaint(true);
+        canvas.setFocusable(false);
+        canvas.setBackground(Color.BLACK);
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("jetgame.activeRender");
+    }
+
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    public void render() {
+        int width = canvas.getWidth();
+        int height = canvas.getHeight();
+        if (!canvas.isDisplayable() || width <= 0 || height <= 0) {
+            return;
+        }
+
+        long start = FrameProfiler.start();
+        if (!strategyUnavailable && ensureStrategy()) {
+            renderWithStrategy(width, height);
+        } else {
+            renderWithVolatileImage(width, height);
+        }
+        Toolkit.getDefaultToolkit().sync();
+        // Shown in the F3 overlay next to the draw-only frame time
+        FrameProfiler.lap(FrameProfiler.FRAME_FLIPPED, start);
+    }
+
+    private boolean ensureStrategy() {
+        if (strategy != null) {
+            return true;
+        }
+        try {
+            // Ask for real page flipping first, then fall back to whatever the pipeline offers
+            try {
+                canvas.createBufferStrategy(2, new BufferCapabilities(
+                        new ImageCapabilities(true), new ImageCapabilities(true),
+                        BufferCapabilities.FlipContents.UNDEFINED));
+            } catch (AWTException e) {
+                canvas.createBufferStrategy(2);
+            }
+            strategy = canvas.getBufferStrategy();
+        } catch (RuntimeException e) {
+            System.err.println("Buffer strategy unavailable, using VolatileImage: " + e.getMessage());
+            strategyUnavailable = true;
+        }
+        return strategy != null;
+    }
+
+    private void renderWithStrategy(int width, int height) {
+        try {
+            do {
+                do {
+                    Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                    try {
+                        paintFrame(g, width, height);
+                    } finally {
+                        g.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+        } catch (IllegalStateException e) {
+            // Peer went away (e.g. resize or panel switch); rebuild next frame
+            strategy = null;
+        }
+    }
+
+    private void renderWithVolatileImage(int width, int height) {
+        GraphicsConfiguration gc = canvas.getGraphicsConfiguration();
+        if (gc == null) {
+            return;
+        }
+        do {
+            if (backBuffer == null || backBuffer.getWidth() != width || backBuffer.getHeight() != height
+                    || backBuffer.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if (backBuffer != null) {
+                    backBuffer.flush();
+                }
+                backBuffer = gc.createCompatibleVolatileImage(width, height);
+            }
+
+            Graphics2D g = backBuffer.createGraphics();
+            try {
+                paintFrame(g, width, height);
+            } finally {
+                g.dispose();
+            }
+
+            Graphics target = canvas.getGraphics();
+            if (target != null) {
+                target.drawImage(backBuffer, 0, 0, null);
+                target.dispose();
+            }
+        } while (backBuffer.contentsLost());
+    }
+
+    private void paintFrame(Graphics2D g, int width, int height) {
+        g.setColor(canvas.getBackground());
+        g.fillRect(0, 0, width, height);
+        painter.paint(g, width, height);
+    }
+
+    public void dispose() {
+        if (strategy != null) {
+            strategy.dispose();
+            strategy = null;
+        }
+        if (backBuffer != null) {
+            backBuffer.flush();
+            backBuffer = null;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+// AssetCache.java
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+// Decoded images and sounds, held within a byte budget counted from their actual pixel and PCM sizes.
+// Past the budget the least recently used entries are demoted to soft references: the GC may take
+// them, but if it hasn't by the next request they come back without decoding. Assets pinned for the
+// current scene are never demoted. Concurrent requests for the same key decode it only once.
+public class AssetCache {
+    // Cached so that missing assets aren't retried (and reported) on every request
+    private static final Object MISSING = new Object();
+
+    private static final class Entry {
+        final String key;
+        final long bytes;
+        Object value; // null once demoted
+        SoftValue soft;
+
+        Entry(String key, Object value, long bytes) {
+            this.key = key;
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final class SoftValue extends SoftReference<Object> {
+        final String key;
+
+        SoftValue(String key, Object value, ReferenceQueue<Object> queue) {
+            super(value, queue);
+            this.key = key;
+        }
+    }
+
+    private final long budgetBytes;
+    // Access order: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, CompletableFuture<Object>> loading = new HashMap<>();
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+    private Set<String> pinned = Collections.emptySet();
+    private long strongBytes = 0;
+
+    private long hits = 0;
+    private long softHits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long collections = 0;
+
+    public AssetCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    // The cached value for key, or loader's result (which may be null) if there is none
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Function<String, ? extends T> loader) {
+        CompletableFuture<Object> future;
+        boolean mine = false;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.value != null) {
+                hits++;
+                return (T) unwrap(entry.value);
+            }
+            if (entry != null) {
+                Object revived = entry.soft.get();
+                if (revived != null) {
+                    softHits++;
+                    promote(entry, revived);
+                    return (T) unwrap(revived);
+                }
+            }
+            future = loading.get(key);
+            if (future == null) {
+                misses++;
+                future = new CompletableFuture<>();
+                loading.put(key, future);
+                mine = true;
+            }
+        }
+        if (!mine) {
+            return (T) unwrap(future.join());
+        }
+
+        Object value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                loading.remove(key); // let a later call try again
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+        Object stored = value != null ? value : MISSING;
+        synchronized (this) {
+            loading.remove(key);
+            Entry entry = new Entry(key, stored, sizeOf(value));
+            Entry replaced = entries.put(key, entry);
+            if (replaced != null && replaced.value != null) {
+                strongBytes -= replaced.bytes;
+            }
+            strongBytes += entry.bytes;
+            if (entry.bytes > budgetBytes) {
+                // Would push out everything else and still not fit: go straight to the soft tier
+                demote(entry);
+            }
+            trim();
+        }
+        future.complete(stored);
+        return (T) value;
+    }
+
+    // Pins exactly these keys (loaded now or later) and unpins whatever the previous scene pinned
+    public synchronized void pinScene(Collection<String> keys) {
+        pinned = new HashSet<>(keys);
+        trim();
+    }
+
+    private static Object unwrap(Object value) {
+        return value == MISSING ? null : value;
+    }
+
+    private void promote(Entry entry, Object value) {
+        entry.value = value;
+        entry.soft = null;
+        strongBytes += entry.bytes;
+        trim();
+    }
+
+    // Caller holds the lock
+    private void trim() {
+        purgeCollected();
+        Iterator<Entry> it = entries.values().iterator();
+        while (strongBytes > budgetBytes && it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.value != null) {
+                demote(entry);
+            }
+        }
+    }
+
+    private void demote(Entry entry) {
+        if (entry.value == MISSING || pinned.contains(entry.key)) {
+            return;
+        }
+        entry.soft = new SoftValue(entry.key, entry.value, collected);
+        entry.value = null;
+        strongBytes -= entry.bytes;
+        evictions++;
+    }
+
+    // Drops entries whose soft reference the GC has cleared
+    private void purgeCollected() {
+        SoftValue ref;
+        while ((ref = (SoftValue) collected.poll()) != null) {
+            Entry entry = entries.get(ref.key);
+            if (entry != null && entry.soft == ref) {
+                entries.remove(ref.key);
+                collections++;
+            }
+        }
+    }
+
+    // Bytes held by the decoded pixels or samples, not the encoded file
+    static long sizeOf(Object value) {
+        if (value instanceof BufferedImage) {
+            DataBuffer data = ((BufferedImage) value).getRaster().getDataBuffer();
+            return (long) data.getSize() * data.getNumBanks() * DataBuffer.getDataTypeSize(data.getDataType()) / 8;
+        }
+        if (value instanceof Image) {
+            Image image = (Image) value;
+            return 4L * Math.max(0, image.getWidth(null)) * Math.max(0, image.getHeight(null));
+        }
+        if (value instanceof SoundBuffer) {
+            return 2L * ((SoundBuffer) value).samples.length;
+        }
+        return 0;
+    }
+
+    public long getBudgetBytes() { return budgetBytes; }
+    public synchronized long getStrongBytes() { return strongBytes; }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getSoftHits() { return softHits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+
+    @Override
+    public synchronized String toString() {
+        purgeCollected();
+        int strong = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.value != null) {
+                strong++;
+            }
+        }
+        return String.format("assets: %d cached (%d soft), %.1f / %.1f MB, %d pinned, %d hits, %d soft hits, "
+                        + "%d misses, %d evictions, %d collected",
+                strong, entries.size() - strong, strongBytes / 1048576.0, budgetBytes / 1048576.0,
+                pinned.size(), hits, softHits, misses, evictions, collections);
+    }
+}
@@ -0,0 +1,97 @@
+// AssetLoader.java
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Decodes assets on a few worker threads. Tasks run in the order they were handed over, so the
+// batch submitted first (the menu's) is ready first. ResourceManager makes sure an asset requested
+// here and somewhere else at the same time is still decoded only once.
+public class AssetLoader {
+    public interface Listener {
+        void progress(int done, int total, String asset);
+    }
+
+    public static final class Task {
+        final String name;
+        final Runnable load;
+
+        Task(String name, Runnable load) {
+            this.name = name;
+            this.load = load;
+        }
+    }
+
+    private final ThreadPoolExecutor workers;
+    private final int threads;
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger done = new AtomicInteger();
+    private final List<CompletableFuture<Void>> batches = new ArrayList<>();
+    private final long startNanos = System.nanoTime();
+    private volatile Listener listener = (d, t, a) -> { };
+
+    public AssetLoader() {
+        this(Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())));
+    }
+
+    public AssetLoader(int threads) {
+        this.threads = threads;
+        AtomicInteger count = new AtomicInteger();
+        workers = new ThreadPoolExecutor(threads, threads, 2, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "asset-loader-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Let the workers go once everything is loaded
+        workers.allowCoreThreadTimeOut(true);
+    }
+
+    public static Task task(String name, Runnable load) {
+        return new Task(name, load);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+        listener.progress(done.get(), total.get(), null);
+    }
+
+    // Queues a batch; the future completes when every task in it has finished
+    public CompletableFuture<Void> load(List<Task> tasks) {
+        total.addAndGet(tasks.size());
+        List<CompletableFuture<Void>> futures = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            futures.add(CompletableFuture.runAsync(() -> run(task), workers));
+        }
+        CompletableFuture<Void> batch = CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new));
+        synchronized (batches) {
+            batches.add(batch);
+        }
+        return batch;
+    }
+
+    // Call once the last batch is queued: the startup metric then covers every batch, and is printed
+    // once, however the batches' tasks happen to interleave
+    public void reportWhenLoaded() {
+        CompletableFuture<?>[] all;
+        synchronized (batches) {
+            all = batches.toArray(CompletableFuture<?>[]::new);
+        }
+        CompletableFuture.allOf(all).thenRun(() ->
+                StartupMetrics.assetsLoaded(total.get(), System.nanoTime() - startNanos, threads));
+    }
+
+    private void run(Task task) {
+        try {
+            task.load.run();
+        } catch (RuntimeException e) {
+            System.err.println("Could not load " + task.name + ": " + e);
+        }
+        listener.progress(done.incrementAndGet(), total.get(), task.name);
+    }
+
+    public int getDone() { return done.get(); }
+    public int getTotal() { return total.get(); }
+}
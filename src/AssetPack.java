@@ -0,0 +1,219 @@
+// AssetPack.java
+import javax.sound.sampled.AudioInputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// Read side of assets.pak (written by AssetPacker). The file is memory-mapped and only the index is
+// parsed up front; images and sounds are already decoded, so loading one is a single bulk copy from
+// the mapping into the image's raster or the sound's sample array.
+//
+// Layout, little-endian:
+//   header   "JGPK", version, entry count
+//   index    per entry: name length (short), UTF-8 name, format (byte), width, height, offset (long), length
+//   payload  each entry's bytes at its offset, 8-byte aligned
+// Images are width x height ints (ARGB, premultiplied unless opaque). Sounds are 16-bit stereo PCM at
+// AudioMixer.SAMPLE_RATE; width holds the frame count. Raw entries are the original file.
+public class AssetPack {
+    static final int MAGIC = 0x4B50474A; // "JGPK" read little-endian
+    static final int VERSION = 1;
+    static final byte RAW = 0;
+    static final byte IMAGE_ARGB_PRE = 1;
+    static final byte IMAGE_RGB = 2;
+    static final byte PCM = 3;
+
+    static final class Entry {
+        final String name;
+        final byte format;
+        final int width;
+        final int height;
+        final long offset;
+        final int length;
+
+        Entry(String name, byte format, int width, int height, long offset, int length) {
+            this.name = name;
+            this.format = format;
+            this.width = width;
+            this.height = height;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final Path path;
+    private final MappedByteBuffer mapped;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private AssetPack(Path path, MappedByteBuffer mapped) {
+        this.path = path;
+        this.mapped = mapped;
+    }
+
+    // The pack named by -Djetgame.assetPack (default assets.pak in the working directory), or null
+    // if there is none and assets should come from the classpath
+    public static AssetPack openDefault() {
+        String property = System.getProperty("jetgame.assetPack");
+        Path path = Paths.get(property != null ? property : "assets.pak");
+        if (!Files.isRegularFile(path)) {
+            if (property != null) {
+                System.err.println("Asset pack not found: " + path);
+            }
+            return null;
+        }
+        try {
+            return open(path);
+        } catch (IOException e) {
+            System.err.println("Could not open asset pack " + path + ", using classpath resources: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static AssetPack open(Path path) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        AssetPack pack = new AssetPack(path, mapped);
+        pack.readIndex();
+        return pack;
+    }
+
+    private void readIndex() throws IOException {
+        ByteBuffer in = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("not an asset pack");
+            }
+            int version = in.getInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported version " + version);
+            }
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[in.getShort() & 0xFFFF];
+                in.get(name);
+                Entry entry = new Entry(new String(name, StandardCharsets.UTF_8), in.get(), in.getInt(), in.getInt(),
+                        in.getLong(), in.getInt());
+                if (entry.offset < 0 || entry.length < 0 || entry.offset + entry.length > mapped.capacity()) {
+                    throw new IOException("entry out of bounds: " + entry.name);
+                }
+                entries.put(entry.name, entry);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("truncated index", e);
+        }
+    }
+
+    // The entry's bytes as a view of the mapping; nothing is copied
+    private ByteBuffer payload(Entry entry) {
+        ByteBuffer view = mapped.duplicate();
+        view.position((int) entry.offset);
+        view.limit((int) entry.offset + entry.length);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    // null if the pack has no image by that name
+    public BufferedImage image(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null || (entry.format != IMAGE_ARGB_PRE && entry.format != IMAGE_RGB)) {
+            return null;
+        }
+        BufferedImage image = new BufferedImage(entry.width, entry.height,
+                entry.format == IMAGE_RGB ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        payload(entry).asIntBuffer().get(pixels);
+        return image;
+    }
+
+    // null if the pack has no sound by that name
+    public SoundBuffer sound(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null || entry.format != PCM) {
+            return null;
+        }
+        short[] samples = new short[entry.width * AudioMixer.CHANNELS];
+        payload(entry).asShortBuffer().get(samples);
+        return new SoundBuffer(name, samples);
+    }
+
+    // A stream over a sound's PCM in the mixer's format, read straight from the mapping; null if absent
+    public AudioInputStream openAudioStream(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null || entry.format != PCM) {
+            return null;
+        }
+        return new AudioInputStream(new BufferInputStream(payload(entry)), AudioMixer.FORMAT, entry.width);
+    }
+
+    // A raw entry's original bytes; null if absent
+    public InputStream openRaw(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null || entry.format != RAW) {
+            return null;
+        }
+        return new BufferInputStream(payload(entry));
+    }
+
+    public int getEntryCount() { return entries.size(); }
+    public long getSize() { return mapped.capacity(); }
+
+    @Override
+    public String toString() {
+        return path + " (" + entries.size() + " assets, " + mapped.capacity() / 1024 + " KB mapped)";
+    }
+
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
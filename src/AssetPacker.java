@@ -0,0 +1,158 @@
+// AssetPacker.java
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+// Build step: decodes everything in a resource directory and writes it to one AssetPack file, so the
+// game maps a single file at startup instead of opening and decoding each resource.
+//
+// java -Djava.awt.headless=true AssetPacker [resources] [assets.pak]
+public class AssetPacker {
+    private static final class Packed {
+        final String name;
+        final byte format;
+        final int width;
+        final int height;
+        final ByteBuffer payload;
+
+        Packed(String name, byte format, int width, int height, ByteBuffer payload) {
+            this.name = name;
+            this.format = format;
+            this.width = width;
+            this.height = height;
+            this.payload = payload;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        Path source = Paths.get(args.length > 0 ? args[0] : "resources");
+        Path target = Paths.get(args.length > 1 ? args[1] : "assets.pak");
+        if (!Files.isDirectory(source)) {
+            System.err.println("Usage: AssetPacker [resources dir] [output file]");
+            System.exit(2);
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(source)) {
+            listing.filter(Files::isRegularFile).sorted().forEach(files::add);
+        }
+        List<Packed> packed = new ArrayList<>();
+        for (Path file : files) {
+            Packed entry = pack(file);
+            packed.add(entry);
+            System.out.printf(Locale.ROOT, "  %-20s %-6s %8d bytes%n", entry.name, formatName(entry.format),
+                    entry.payload.remaining());
+        }
+        write(packed, target);
+        System.out.println("Packed " + packed.size() + " assets into " + target + " (" + Files.size(target) / 1024 + " KB)");
+    }
+
+    private static Packed pack(Path file) throws IOException {
+        // Same names the game asks the classpath for
+        String name = "/" + file.getFileName();
+        String lower = name.toLowerCase(Locale.ROOT);
+        try {
+            if (lower.endsWith(".png") || lower.endsWith(".jpg") || lower.endsWith(".gif")) {
+                BufferedImage image = ImageIO.read(file.toFile());
+                if (image != null) {
+                    return packImage(name, image);
+                }
+            } else if (lower.endsWith(".wav") || lower.endsWith(".aiff") || lower.endsWith(".au")) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    return packSound(SoundBuffer.load(name, in));
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Could not decode " + file + ", storing it as is: " + e.getMessage());
+        }
+        return new Packed(name, AssetPack.RAW, 0, 0, ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+
+    // Stored in the layout AssetPack reads back without conversion: TYPE_INT_RGB when opaque,
+    // otherwise TYPE_INT_ARGB_PRE so the game's scaling passes work on premultiplied pixels
+    private static Packed packImage(String name, BufferedImage image) {
+        boolean opaque = image.getTransparency() == Transparency.OPAQUE;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        BufferedImage converted = new BufferedImage(width, height,
+                opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = converted.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        int[] pixels = ((DataBufferInt) converted.getRaster().getDataBuffer()).getData();
+        ByteBuffer payload = ByteBuffer.allocate(pixels.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        payload.asIntBuffer().put(pixels);
+        return new Packed(name, opaque ? AssetPack.IMAGE_RGB : AssetPack.IMAGE_ARGB_PRE, width, height, payload);
+    }
+
+    // Already resampled to the mixer's rate and channel count
+    private static Packed packSound(SoundBuffer sound) {
+        ByteBuffer payload = ByteBuffer.allocate(sound.samples.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        payload.asShortBuffer().put(sound.samples);
+        return new Packed(sound.name, AssetPack.PCM, sound.frames, AudioMixer.CHANNELS, payload);
+    }
+
+    private static void write(List<Packed> packed, Path target) throws IOException {
+        int indexSize = 12;
+        for (Packed entry : packed) {
+            indexSize += 2 + entry.name.getBytes(StandardCharsets.UTF_8).length + 1 + 4 + 4 + 8 + 4;
+        }
+        ByteBuffer index = ByteBuffer.allocate(indexSize).order(ByteOrder.LITTLE_ENDIAN);
+        index.putInt(AssetPack.MAGIC).putInt(AssetPack.VERSION).putInt(packed.size());
+        long[] offsets = new long[packed.size()];
+        long offset = align(indexSize);
+        for (int i = 0; i < packed.size(); i++) {
+            Packed entry = packed.get(i);
+            byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+            offsets[i] = offset;
+            index.putShort((short) name.length).put(name).put(entry.format).putInt(entry.width).putInt(entry.height)
+                    .putLong(offset).putInt(entry.payload.remaining());
+            offset = align(offset + entry.payload.remaining());
+        }
+        index.flip();
+
+        // Written next to the target and moved into place, so a failed run never leaves half a pack
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, index, 0);
+            for (int i = 0; i < packed.size(); i++) {
+                writeFully(out, packed.get(i).payload.duplicate(), offsets[i]);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += out.write(buffer, position);
+        }
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static String formatName(byte format) {
+        switch (format) {
+            case AssetPack.IMAGE_ARGB_PRE: return "argb";
+            case AssetPack.IMAGE_RGB: return "rgb";
+            case AssetPack.PCM: return "pcm";
+            default: return "raw";
+        }
+    }
+}
@@ -0,0 +1,260 @@
+// AudioMixer.java
+import javax.sound.sampled.*;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Software mixer. Every sound effect is a voice reading a shared SoundBuffer; one thread sums the
+// active voices and the music stream into a single SourceDataLine. play() never blocks and never touches the device, and
+// nothing is allocated per sound. render() does the mixing and can be called directly (no thread,
+// no device) to mix into a byte array.
+public class AudioMixer {
+    static final int SAMPLE_RATE = 44100;
+    static final int CHANNELS = 2;
+    public static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, CHANNELS, true, false);
+    // 256 frames is about 5.8 ms; the line holds 4 blocks, so output latency stays around 23 ms
+    static final int BLOCK_FRAMES = 256;
+    private static final int LINE_BLOCKS = 4;
+    // The same sound triggered again within one game tick of starting is merged into that voice
+    private static final int COALESCE_FRAMES = SAMPLE_RATE / GameLoop.TICKS_PER_SECOND;
+    private static final int MAX_PENDING = 64;
+
+    // Voice pool, touched only by the mixing thread
+    private final SoundBuffer[] voiceBuffer;
+    private final int[] voicePosition;
+    private final float[] voiceGain;
+    private final int[] voicePriority;
+
+    // Triggers from game threads; swapped with the drain arrays once per block
+    private final Object pendingLock = new Object();
+    private SoundBuffer[] pendingBuffer = new SoundBuffer[MAX_PENDING];
+    private float[] pendingGain = new float[MAX_PENDING];
+    private int[] pendingPriority = new int[MAX_PENDING];
+    private int pendingCount = 0;
+    private SoundBuffer[] drainBuffer = new SoundBuffer[MAX_PENDING];
+    private float[] drainGain = new float[MAX_PENDING];
+    private int[] drainPriority = new int[MAX_PENDING];
+
+    private final int[] mix = new int[BLOCK_FRAMES * CHANNELS];
+    private final byte[] block = new byte[BLOCK_FRAMES * CHANNELS * 2];
+    private volatile float masterGain = 1f;
+    private volatile MusicStreamer music;
+
+    private volatile int activeVoices = 0;
+    // Counted from both game threads and the mixing thread
+    private final AtomicLong played = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong stolen = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private SourceDataLine line;
+    private Thread thread;
+    private volatile boolean running = false;
+
+    public AudioMixer(int voices) {
+        voiceBuffer = new SoundBuffer[voices];
+        voicePosition = new int[voices];
+        voiceGain = new float[voices];
+        voicePriority = new int[voices];
+    }
+
+    // Opens the default output and starts mixing; false if there is no usable audio device
+    public boolean start() {
+        try {
+            line = AudioSystem.getSourceDataLine(FORMAT);
+            line.open(FORMAT, block.length * LINE_BLOCKS);
+            line.start();
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            System.err.println("No audio output, sound disabled: " + e.getMessage());
+            line = null;
+            return false;
+        }
+        running = true;
+        thread = new Thread(this::run, "audio-mixer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+        return true;
+    }
+
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+        if (line != null) {
+            line.stop();
+            line.close();
+            line = null;
+        }
+    }
+
+    private void run() {
+        while (running) {
+            render(block, BLOCK_FRAMES);
+            // Blocks until the device has room, which is what paces this loop
+            line.write(block, 0, block.length);
+        }
+    }
+
+    // Queues a sound to start with the next block. Higher priority voices win when the pool is full.
+    public void play(SoundBuffer buffer, float gain, int priority) {
+        if (buffer == null || buffer.frames == 0) {
+            return;
+        }
+        synchronized (pendingLock) {
+            for (int i = 0; i < pendingCount; i++) {
+                if (pendingBuffer[i] == buffer) {
+                    // Same sound twice in one block: one louder voice, not two in phase
+                    pendingGain[i] = Math.max(pendingGain[i], gain);
+                    pendingPriority[i] = Math.max(pendingPriority[i], priority);
+                    coalesced.incrementAndGet();
+                    return;
+                }
+            }
+            if (pendingCount == MAX_PENDING) {
+                dropped.incrementAndGet();
+                return;
+            }
+            pendingBuffer[pendingCount] = buffer;
+            pendingGain[pendingCount] = gain;
+            pendingPriority[pendingCount] = priority;
+            pendingCount++;
+        }
+    }
+
+    // Fills target with `frames` frames of 16-bit little-endian stereo
+    public void render(byte[] target, int frames) {
+        startPending();
+        for (int done = 0; done < frames; done += BLOCK_FRAMES) {
+            int n = Math.min(BLOCK_FRAMES, frames - done);
+            mixBlock(n);
+            writeBlock(target, done * CHANNELS * 2, n);
+        }
+    }
+
+    private void startPending() {
+        int count;
+        synchronized (pendingLock) {
+            count = pendingCount;
+            SoundBuffer[] buffers = pendingBuffer;
+            pendingBuffer = drainBuffer;
+            drainBuffer = buffers;
+            float[] gains = pendingGain;
+            pendingGain = drainGain;
+            drainGain = gains;
+            int[] priorities = pendingPriority;
+            pendingPriority = drainPriority;
+            drainPriority = priorities;
+            pendingCount = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            startVoice(drainBuffer[i], drainGain[i], drainPriority[i]);
+            drainBuffer[i] = null;
+        }
+    }
+
+    private void startVoice(SoundBuffer buffer, float gain, int priority) {
+        int free = -1;
+        for (int v = 0; v < voiceBuffer.length; v++) {
+            if (voiceBuffer[v] == buffer && voicePosition[v] < COALESCE_FRAMES) {
+                voiceGain[v] = Math.max(voiceGain[v], gain);
+                coalesced.incrementAndGet();
+                return;
+            }
+            if (voiceBuffer[v] == null && free < 0) {
+                free = v;
+            }
+        }
+
+        if (free < 0) {
+            // Steal the lowest priority voice, and among those the one that has played longest
+            int victim = 0;
+            for (int v = 1; v < voiceBuffer.length; v++) {
+                if (voicePriority[v] < voicePriority[victim]
+                        || (voicePriority[v] == voicePriority[victim] && voicePosition[v] > voicePosition[victim])) {
+                    victim = v;
+                }
+            }
+            if (voicePriority[victim] > priority) {
+                dropped.incrementAndGet();
+                return;
+            }
+            stolen.incrementAndGet();
+            free = victim;
+        }
+
+        voiceBuffer[free] = buffer;
+        voicePosition[free] = 0;
+        voiceGain[free] = gain;
+        voicePriority[free] = priority;
+        played.incrementAndGet();
+    }
+
+    private void mixBlock(int frames) {
+        int samples = frames * CHANNELS;
+        Arrays.fill(mix, 0, samples, 0);
+        int active = 0;
+        for (int v = 0; v < voiceBuffer.length; v++) {
+            SoundBuffer buffer = voiceBuffer[v];
+            if (buffer == null) {
+                continue;
+            }
+            active++;
+            int position = voicePosition[v];
+            int n = Math.min(frames, buffer.frames - position) * CHANNELS;
+            short[] source = buffer.samples;
+            int offset = position * CHANNELS;
+            float gain = voiceGain[v];
+            for (int i = 0; i < n; i++) {
+                mix[i] += (int) (source[offset + i] * gain);
+            }
+            position += n / CHANNELS;
+            if (position >= buffer.frames) {
+                voiceBuffer[v] = null;
+            }
+            voicePosition[v] = position;
+        }
+        activeVoices = active;
+
+        MusicStreamer streamer = music;
+        if (streamer != null) {
+            streamer.mixInto(mix, frames);
+        }
+    }
+
+    private void writeBlock(byte[] target, int offset, int frames) {
+        float master = masterGain;
+        for (int i = 0; i < frames * CHANNELS; i++) {
+            int sample = (int) (mix[i] * master);
+            // Hard clip; several loud voices at once would otherwise wrap around
+            if (sample > Short.MAX_VALUE) {
+                sample = Short.MAX_VALUE;
+            } else if (sample < Short.MIN_VALUE) {
+                sample = Short.MIN_VALUE;
+            }
+            target[offset++] = (byte) sample;
+            target[offset++] = (byte) (sample >> 8);
+        }
+    }
+
+    public void setMusic(MusicStreamer music) {
+        this.music = music;
+    }
+
+    public void setMasterGain(float gain) {
+        masterGain = gain;
+    }
+
+    public boolean isRunning() { return running; }
+    public int getVoiceCount() { return voiceBuffer.length; }
+    public int getActiveVoices() { return activeVoices; }
+    public long getPlayedCount() { return played.get(); }
+    public long getCoalescedCount() { return coalesced.get(); }
+    public long getStolenCount() { return stolen.get(); }
+    public long getDroppedCount() { return dropped.get(); }
+}
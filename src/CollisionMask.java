@@ -0,0 +1,157 @@
+// CollisionMask.java
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+// Which pixels of a sprite are solid, at the size it is drawn, one bit per pixel. Rows are packed
+// into longs, column 0 in the lowest bit, so two masks are tested 64 columns at a time: load a word
+// of one, the other's bits shifted into line, AND. Bits past the right edge are always clear, which
+// lets the test run whole words without trimming them. Only used once the bounding boxes overlap.
+public final class CollisionMask {
+    // A pixel counts as solid when at least half the source pixels under it are, by alpha
+    private static final int SOLID_ALPHA = 128;
+
+    final int width;
+    final int height;
+    final int wordsPerRow;
+    final long[] bits;
+    // Bounds of the solid pixels (end-exclusive; empty when nothing is solid), so the test can skip
+    // the clear margins most sprites have
+    int solidLeft, solidTop, solidRight, solidBottom;
+
+    private CollisionMask(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.bits = new long[wordsPerRow * height];
+    }
+
+    private CollisionMask trim() {
+        solidLeft = width;
+        solidTop = height;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (isSolid(x, y)) {
+                    solidLeft = Math.min(solidLeft, x);
+                    solidTop = Math.min(solidTop, y);
+                    solidRight = Math.max(solidRight, x + 1);
+                    solidBottom = Math.max(solidBottom, y + 1);
+                }
+            }
+        }
+        return this;
+    }
+
+    // Every pixel solid, for shapes drawn as plain rectangles
+    public static CollisionMask solid(int width, int height) {
+        CollisionMask mask = new CollisionMask(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                mask.set(x, y);
+            }
+        }
+        return mask.trim();
+    }
+
+    // Scales the source's alpha to width x height by averaging the source pixels under each target
+    // pixel. Integer only and independent of the display's image formats, so every machine (and a
+    // headless replay) gets the same mask from the same image.
+    public static CollisionMask fromAlpha(Image image, int width, int height) {
+        BufferedImage source = toBuffered(image);
+        int sourceWidth = source.getWidth();
+        int sourceHeight = source.getHeight();
+        CollisionMask mask = new CollisionMask(width, height);
+        int[] row = new int[sourceWidth];
+        long[] alphaSums = new long[width];
+        long[] counts = new long[width];
+
+        for (int y = 0; y < height; y++) {
+            int sy0 = (int) ((long) y * sourceHeight / height);
+            int sy1 = Math.max(sy0 + 1, (int) ((long) (y + 1) * sourceHeight / height));
+            Arrays.fill(alphaSums, 0);
+            Arrays.fill(counts, 0);
+            for (int sy = sy0; sy < sy1; sy++) {
+                source.getRGB(0, sy, sourceWidth, 1, row, 0, sourceWidth);
+                for (int x = 0; x < width; x++) {
+                    int sx0 = (int) ((long) x * sourceWidth / width);
+                    int sx1 = Math.max(sx0 + 1, (int) ((long) (x + 1) * sourceWidth / width));
+                    for (int sx = sx0; sx < sx1; sx++) {
+                        alphaSums[x] += row[sx] >>> 24;
+                    }
+                    counts[x] += sx1 - sx0;
+                }
+            }
+            for (int x = 0; x < width; x++) {
+                if (alphaSums[x] >= SOLID_ALPHA * counts[x]) {
+                    mask.set(x, y);
+                }
+            }
+        }
+        return mask.trim();
+    }
+
+    private static BufferedImage toBuffered(Image image) {
+        if (image instanceof BufferedImage) {
+            return (BufferedImage) image;
+        }
+        BufferedImage copy = new BufferedImage(image.getWidth(null), image.getHeight(null), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = copy.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return copy;
+    }
+
+    private void set(int x, int y) {
+        bits[y * wordsPerRow + (x >>> 6)] |= 1L << (x & 63);
+    }
+
+    public boolean isSolid(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height
+                && (bits[y * wordsPerRow + (x >>> 6)] & (1L << (x & 63))) != 0;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    // Whether any solid pixel of a drawn at (ax, ay) lies on a solid pixel of b drawn at (bx, by)
+    public static boolean overlaps(CollisionMask a, int ax, int ay, CollisionMask b, int bx, int by) {
+        int top = Math.max(ay + a.solidTop, by + b.solidTop);
+        int bottom = Math.min(ay + a.solidBottom, by + b.solidBottom);
+        int left = Math.max(ax + a.solidLeft, bx + b.solidLeft);
+        int right = Math.min(ax + a.solidRight, bx + b.solidRight);
+        if (top >= bottom || left >= right) {
+            return false;
+        }
+        // Walk a's words over the shared columns; b's column for a's column x is x - dx
+        int dx = bx - ax;
+        int firstWord = (left - ax) >>> 6;
+        int lastWord = (right - ax - 1) >>> 6;
+        for (int y = top; y < bottom; y++) {
+            int aRow = (y - ay) * a.wordsPerRow;
+            int bRow = (y - by) * b.wordsPerRow;
+            for (int w = firstWord; w <= lastWord; w++) {
+                long aBits = a.bits[aRow + w];
+                if (aBits != 0 && (aBits & b.word(bRow, (w << 6) - dx)) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // The 64 columns of one row starting at column x; columns outside the mask read as clear
+    private long word(int rowStart, int x) {
+        if (x <= -64 || x >= width) {
+            return 0L;
+        }
+        int w = x >> 6; // floor, so -1 for a word straddling the left edge
+        int shift = x & 63;
+        long low = w >= 0 ? bits[rowStart + w] : 0L;
+        if (shift == 0) {
+            return low;
+        }
+        long high = w + 1 < wordsPerRow ? bits[rowStart + w + 1] : 0L;
+        return (low >>> shift) | (high << (64 - shift));
+    }
+}
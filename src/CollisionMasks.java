@@ -0,0 +1,17 @@
+// CollisionMasks.java
+// The masks one game collides with: the chosen ship's and each enemy type's. Built by whoever has the
+// images (ResourceManager.getCollisionMasks) and handed to the GameWorld, so the simulation itself
+// never decodes anything and a replay collides with exactly the masks it is given.
+public final class CollisionMasks {
+    final CollisionMask ship;
+    private final CollisionMask[] enemies;
+
+    public CollisionMasks(CollisionMask ship, CollisionMask[] enemies) {
+        this.ship = ship;
+        this.enemies = enemies.clone();
+    }
+
+    public CollisionMask enemy(int type) {
+        return enemies[type];
+    }
+}
@@ -0,0 +1,370 @@
+// ConnectionPool.java
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Small JDBC pool. Borrowed connections are proxies: close() hands them back, and
+// prepareStatement(sql) reuses a statement cached on the physical connection.
+public class ConnectionPool implements ScoreWriter.ConnectionSource {
+    private static final int STATEMENT_CACHE_SIZE = 16;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+    private static final long EVICTION_INTERVAL_MS = 30_000;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMs;
+    private final long borrowTimeoutMs;
+
+    // Most recently returned first, so the warmest connections get reused
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private int active = 0;
+    private int pendingCreates = 0;
+    private boolean closed = false;
+
+    private long created = 0;
+    private long destroyed = 0;
+    private long borrows = 0;
+    private long validationFailures = 0;
+    private long totalWaitNanos = 0;
+    private long maxWaitNanos = 0;
+
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long idleTimeoutMs, long borrowTimeoutMs) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+
+        Thread evictor = new Thread(this::evictLoop, "db-pool-evictor");
+        evictor.setDaemon(true);
+        evictor.start();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        PooledConnection pooled = borrow(start);
+        long waited = System.nanoTime() - start;
+        synchronized (this) {
+            borrows++;
+            totalWaitNanos += waited;
+            maxWaitNanos = Math.max(maxWaitNanos, waited);
+        }
+        return pooled.lease();
+    }
+
+    private PooledConnection borrow(long start) throws SQLException {
+        long deadline = start + borrowTimeoutMs * 1_000_000L;
+        while (true) {
+            PooledConnection candidate = null;
+            boolean create = false;
+            synchronized (this) {
+                while (!closed && idle.isEmpty() && active + pendingCreates >= maxSize) {
+                    long remaining = (deadline - System.nanoTime()) / 1_000_000L;
+                    if (remaining <= 0) {
+                        throw new SQLException("Timed out waiting for a database connection");
+                    }
+                    try {
+                        wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted waiting for a database connection", e);
+                    }
+                }
+                if (closed) {
+                    throw new SQLException("Connection pool is closed");
+                }
+                if (!idle.isEmpty()) {
+                    candidate = idle.pollFirst();
+                    active++;
+                } else {
+                    pendingCreates++;
+                    create = true;
+                }
+            }
+
+            if (create) {
+                return createConnection();
+            }
+            // Validation happens outside the lock so a dead server can't stall other borrowers
+            if (isUsable(candidate)) {
+                return candidate;
+            }
+            synchronized (this) {
+                active--;
+                validationFailures++;
+                notifyAll();
+            }
+            destroy(candidate);
+        }
+    }
+
+    private PooledConnection createConnection() throws SQLException {
+        try {
+            PooledConnection pooled = new PooledConnection(DriverManager.getConnection(url, user, password));
+            synchronized (this) {
+                pendingCreates--;
+                active++;
+                created++;
+            }
+            return pooled;
+        } catch (SQLException | RuntimeException e) {
+            synchronized (this) {
+                pendingCreates--;
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        boolean keep;
+        try {
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            keep = !pooled.physical.isClosed();
+        } catch (SQLException e) {
+            keep = false;
+        }
+
+        synchronized (this) {
+            active--;
+            if (keep && !closed) {
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.addFirst(pooled);
+                keep = true;
+            } else {
+                keep = false;
+            }
+            notifyAll();
+        }
+        if (!keep) {
+            destroy(pooled);
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        synchronized (this) {
+            destroyed++;
+        }
+        pooled.closeStatements();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // already gone
+        }
+    }
+
+    private void evictLoop() {
+        while (true) {
+            evictIdle();
+            fillToMinimum();
+            try {
+                Thread.sleep(EVICTION_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void evictIdle() {
+        Deque<PooledConnection> expired = new ArrayDeque<>();
+        synchronized (this) {
+            long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+            // Oldest are at the tail
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && idle.size() + active > minSize) {
+                PooledConnection pooled = it.next();
+                if (pooled.lastUsed >= cutoff) {
+                    break;
+                }
+                it.remove();
+                expired.add(pooled);
+            }
+        }
+        for (PooledConnection pooled : expired) {
+            destroy(pooled);
+        }
+    }
+
+    private void fillToMinimum() {
+        while (true) {
+            synchronized (this) {
+                if (closed || idle.size() + active + pendingCreates >= minSize) {
+                    return;
+                }
+                pendingCreates++;
+            }
+            try {
+                PooledConnection pooled = createConnection();
+                release(pooled);
+            } catch (SQLException e) {
+                return; // database not up yet; try again next round
+            }
+        }
+    }
+
+    public void close() {
+        Deque<PooledConnection> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayDeque<>(idle);
+            idle.clear();
+            notifyAll();
+        }
+        for (PooledConnection pooled : toClose) {
+            destroy(pooled);
+        }
+    }
+
+    public synchronized int getActiveCount() { return active; }
+    public synchronized int getIdleCount() { return idle.size(); }
+    public synchronized long getCreatedCount() { return created; }
+    public synchronized long getDestroyedCount() { return destroyed; }
+    public synchronized long getBorrowCount() { return borrows; }
+    public synchronized long getValidationFailures() { return validationFailures; }
+    public synchronized double getAverageWaitMillis() { return borrows == 0 ? 0 : totalWaitNanos / 1e6 / borrows; }
+    public synchronized double getMaxWaitMillis() { return maxWaitNanos / 1e6; }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("pool: %d active, %d idle, %d created, %d destroyed, %d borrows, "
+                        + "wait avg %.3f ms / max %.3f ms, %d failed validations",
+                active, idle.size(), created, destroyed, borrows,
+                getAverageWaitMillis(), getMaxWaitMillis(), validationFailures);
+    }
+
+    private class PooledConnection {
+        final Connection physical;
+        final Map<String, PreparedStatement> statements =
+                new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                        if (size() > STATEMENT_CACHE_SIZE) {
+                            closeQuietly(eldest.getValue());
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+        long lastUsed = System.currentTimeMillis();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new LeaseHandler(this));
+        }
+
+        PreparedStatement statement(String sql) throws SQLException {
+            PreparedStatement stmt = statements.get(sql);
+            if (stmt == null || stmt.isClosed()) {
+                stmt = physical.prepareStatement(sql);
+                statements.put(sql, stmt);
+            }
+            return stmt;
+        }
+
+        void closeStatements() {
+            for (PreparedStatement stmt : statements.values()) {
+                closeQuietly(stmt);
+            }
+            statements.clear();
+        }
+    }
+
+    // One borrow of a pooled connection; stops working once it has been closed (returned)
+    private class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned = false;
+
+        LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                if (!returned) {
+                    returned = true;
+                    release(pooled);
+                }
+                return null;
+            }
+            if (name.equals("isClosed")) {
+                return returned || pooled.physical.isClosed();
+            }
+            if (returned) {
+                throw new SQLException("Connection has been returned to the pool");
+            }
+            if (name.equals("prepareStatement") && args != null && args.length == 1) {
+                return cachedStatement(pooled.statement((String) args[0]));
+            }
+            return invokeOn(pooled.physical, method, args);
+        }
+    }
+
+    // Wraps a cached statement so the caller's close() just resets it for the next borrower
+    private static PreparedStatement cachedStatement(PreparedStatement stmt) {
+        return (PreparedStatement) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("close")) {
+                        stmt.clearParameters();
+                        stmt.clearBatch();
+                        return null;
+                    }
+                    if (name.equals("isClosed")) {
+                        return false;
+                    }
+                    return invokeOn(stmt, method, args);
+                });
+    }
+
+    private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void closeQuietly(Statement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            // ignore
+        }
+    }
+}
@@ -1,80 +1,75 @@
-import java.sql.*;
+import java.nio.file.Paths;
 import java.util.*;
 
 public class DatabaseManager {
     private static final String DB_URL = "jdbc:mysql://localhost:3306/space_defender?useSSL=false&serverTimezone=UTC";
     private static final String DB_USER = "root";
     private static final String DB_PASS = "";
+    // -Djetgame.scoreStore=file keeps scores in local files (-Djetgame.scoreDir, default ./scores)
+    private static final String STORE_TYPE = System.getProperty("jetgame.scoreStore", "jdbc");
+    private static final String SCORE_DIR = System.getProperty("jetgame.scoreDir", "scores");
 
-    static {
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-        } catch (ClassNotFoundException e) {
-            System.err.println("MySQL Driver not found: " + e.getMessage());
+    // Top 20 overall and per difficulty, refreshed from the store every 5 minutes
+    private static final LeaderboardCache leaderboard =
+            new LeaderboardCache(DatabaseManager::loadTopResults, 20, 5 * 60_000);
+    private static final ScoreStore store = createStore();
+
+    private static ScoreStore createStore() {
+        if (STORE_TYPE.equalsIgnoreCase("file")) {
+            return new FileScoreStore(Paths.get(SCORE_DIR), leaderboard::onSaved);
+        }
+        if (!STORE_TYPE.equalsIgnoreCase("jdbc")) {
+            System.err.println("Unknown score store '" + STORE_TYPE + "', using jdbc");
         }
+        return new JdbcScoreStore(DB_URL, DB_USER, DB_PASS, leaderboard::onSaved);
+    }
+
+    public static String getStoreStats() {
+        return store.toString();
     }
 
+    // Hands the result to the store; returns false only if it could not be accepted
     public static boolean saveGameResult(String playerName, int score, int level, String difficulty) {
-        String sql = "INSERT INTO game_results (player_name, score, level, difficulty) VALUES (?, ?, ?, ?)";
+        return store.save(new GameResult(playerName, score, level, difficulty, System.currentTimeMillis()));
+    }
 
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS);
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    // Opens the store and loads the leaderboard in the background, so the first screen that needs it has it
+    public static void warmUp() {
+        Thread thread = new Thread(() -> {
+            initializeDatabase();
+            leaderboard.refresh();
+        }, "score-store-init");
+        thread.setDaemon(true);
+        thread.start();
+    }
 
-            stmt.setString(1, playerName);
-            stmt.setInt(2, score);
-            stmt.setInt(3, level);
-            stmt.setString(4, difficulty);
+    // Cached: never touches the store, safe to call while painting
+    public static LeaderboardCache.Board getLeaderboard(String difficulty) {
+        return leaderboard.top(difficulty);
+    }
 
-            return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error saving score: " + e.getMessage());
-            return false;
-        }
+    public static boolean isLeaderboardLoaded() {
+        return leaderboard.isLoaded();
     }
 
     public static List<String> getHighScores(int limit) {
+        LeaderboardCache.Board board = leaderboard.top(LeaderboardCache.OVERALL);
         List<String> scores = new ArrayList<>();
-        String sql = "SELECT player_name, score, level, difficulty, " +
-                "DATE_FORMAT(achieved_on, '%d/%m/%Y %H:%i') as date " +
-                "FROM game_results ORDER BY score DESC LIMIT ?";
-
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS);
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, limit);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                String entry = String.format("%s - %d pts (Niv.%d %s) le %s",
-                        rs.getString("player_name"),
-                        rs.getInt("score"),
-                        rs.getInt("level"),
-                        rs.getString("difficulty"),
-                        rs.getString("date"));
-
-                scores.add(entry);
-            }
-        } catch (SQLException e) {
-            System.err.println("Error getting highscores: " + e.getMessage());
+        for (int i = 0; i < Math.min(limit, board.size()); i++) {
+            scores.add(board.line(i));
         }
         return scores;
     }
 
-    public static void initializeDatabase() {
-        String sql = "CREATE TABLE IF NOT EXISTS game_results (" +
-                "id INT AUTO_INCREMENT PRIMARY KEY, " +
-                "player_name VARCHAR(50) NOT NULL, " +
-                "score INT NOT NULL, " +
-                "level INT NOT NULL, " +
-                "difficulty VARCHAR(20) NOT NULL, " +
-                "achieved_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                ")";
+    private static List<GameResult> loadTopResults(String difficulty, int limit) throws Exception {
+        return store.top(difficulty, limit);
+    }
 
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS);
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-        } catch (SQLException e) {
-            System.err.println("Error creating table: " + e.getMessage());
+    public static void initializeDatabase() {
+        try {
+            store.initialize();
+        } catch (Exception e) {
+            System.err.println("Error initializing score store: " + e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -1,94 +1,71 @@
 // Enemy.java
 import java.awt.*;
 
+// Enemy archetype: per-type stats plus the spawn/draw helpers for rows of EntityStore.enemies
 public class Enemy {
-    private int x, y;
-    private int width, height;
-    private int speedY;
-    private Image image;
-    private boolean alive = true;
-    private int type;
-    private int health;
-    private int maxHealth;
-    public int getHealth() {
-        return health;
-    }
-    public int getMaxHealth() {
-        return maxHealth;
-    }
+    public static final int BASIC = 0;
+    public static final int FAST = 1;
+    public static final int TANK = 2;
+    public static final int TYPES = 3;
 
-    public Enemy(int startX, int startY, int baseSpeed, int type) {
-        this.x = startX;
-        this.y = startY;
-        this.type = type;
+    private static final String[] IMAGE_PATHS = { "/enemy_basic.png", "/enemy_fast.png", "/enemy_tank.png" };
+    private static final int[] SIZE = { 40, 30, 50 };
+    private static final int[] SPEED_BONUS = { 0, 2, -1 };
+    private static final int[] HEALTH = { 1, 1, 3 };
+    private static final int[] SCORE = { 10, 15, 30 };
+    private static final Sprite[] sprites = new Sprite[IMAGE_PATHS.length];
 
-        switch(type) {
-            case 0: // Basic
-                this.image = ResourceManager.getImage("/enemy_basic.png");
-                this.width = 40;
-                this.height = 40;
-                this.speedY = baseSpeed;
-                this.health = 1;
-                break;
-            case 1: // Fast
-                this.image = ResourceManager.getImage("/enemy_fast.png");
-                this.width = 30;
-                this.height = 30;
-                this.speedY = baseSpeed + 2;
-                this.health = 1;
-                break;
-            case 2: // Tank
-                this.image = ResourceManager.getImage("/enemy_tank.png");
-                this.width = 50;
-                this.height = 50;
-                this.speedY = baseSpeed - 1;
-                this.health = 3;
-                break;
-            default:
-                this.image = ResourceManager.getImage("/enemy_basic.png");
-                this.width = 40;
-                this.height = 40;
-                this.speedY = baseSpeed;
-                this.health = 1;
+    public static int spawn(EntityTable table, int startX, int startY, int baseSpeed, int type) {
+        if (type < BASIC || type > TANK) {
+            type = BASIC;
         }
-        this.maxHealth = health;
+        int handle = table.create();
+        int row = table.rowOf(handle);
+        table.type[row] = type;
+        table.x[row] = startX;
+        table.y[row] = startY;
+        table.prevX[row] = startX;
+        table.prevY[row] = startY;
+        table.width[row] = SIZE[type];
+        table.height[row] = SIZE[type];
+        table.vy[row] = baseSpeed + SPEED_BONUS[type];
+        table.health[row] = HEALTH[type];
+        table.maxHealth[row] = HEALTH[type];
+        return handle;
     }
 
-    public void update(int scrollSpeed) {
-        y += speedY + scrollSpeed;
+    public static int scoreFor(int type) {
+        return SCORE[type];
     }
 
-    public boolean isOutOfScreen(int screenHeight) {
-        return y > screenHeight;
+    public static int size(int type) {
+        return SIZE[type];
     }
 
-    public void draw(Graphics g) {
-        if (alive) {
-            g.drawImage(image, x, y, width, height, null);
-
-            if (type == 2) {
-                g.setColor(Color.RED);
-                g.fillRect(x, y - 10, width, 5);
-                g.setColor(Color.GREEN);
-                int healthWidth = (int)(width * ((double)health / maxHealth));
-                g.fillRect(x, y - 10, healthWidth, 5);
-            }
-        }
+    public static String imagePath(int type) {
+        return IMAGE_PATHS[type];
     }
 
-    public void takeDamage(int damage) {
-        health -= damage;
-        if (health <= 0) {
-            alive = false;
+    public static Sprite sprite(int type) {
+        Sprite sprite = sprites[type];
+        if (sprite == null) {
+            sprite = ResourceManager.getSprite(IMAGE_PATHS[type], SIZE[type], SIZE[type]);
+            sprites[type] = sprite;
         }
+        return sprite;
     }
 
-    public Rectangle getHitbox() {
-        return new Rectangle(x, y, width, height);
-    }
+    public static void draw(Graphics g, int type, int x, int y,
+                            int width, int height, int health, int maxHealth) {
+        // Pre-scaled to the type's size, so this is a plain blit from the atlas
+        sprite(type).draw(g, x, y);
 
-    public boolean isAlive() { return alive; }
-    public int getX() { return x; }
-    public int getY() { return y; }
-    public int getType() { return type; }
-}
\ No newline at end of file
+        if (type == TANK) {
+            g.setColor(Color.RED);
+            g.fillRect(x, y - 10, width, 5);
+            g.setColor(Color.GREEN);
+            int healthWidth = (int)(width * ((double)health / maxHealth));
+            g.fillRect(x, y - 10, healthWidth, 5);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+// EntityStore.java
+// Archetype tables for everything the simulation moves around. A row is alive while health > 0.
+public class EntityStore {
+    final EntityTable enemies = new EntityTable(64);
+    final EntityTable projectiles = new EntityTable(256);
+
+    public void clear() {
+        enemies.clear();
+        projectiles.clear();
+    }
+}
@@ -0,0 +1,170 @@
+// EntityTable.java
+import java.util.Arrays;
+
+// One archetype's components stored as parallel primitive columns. Rows are packed (0..size-1)
+// and deleted by moving the last row into the hole, so loops never skip gaps. Handles stay
+// valid across those moves: a handle names a slot, and the slot maps to the current row.
+public class EntityTable {
+    private static final int SLOT_BITS = 22;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int GENERATION_MASK = (1 << (31 - SLOT_BITS)) - 1;
+    public static final int NO_ENTITY = -1;
+
+    int size;
+    int[] x, y;
+    int[] prevX, prevY;
+    int[] vx, vy;
+    int[] width, height;
+    int[] health, maxHealth;
+    int[] type;
+
+    private int[] slotOfRow;
+    private int[] rowOfSlot;
+    private int[] generation;
+    private int[] freeSlots;
+    private int freeCount;
+    private int slotCount;
+
+    public EntityTable(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        x = new int[capacity];
+        y = new int[capacity];
+        prevX = new int[capacity];
+        prevY = new int[capacity];
+        vx = new int[capacity];
+        vy = new int[capacity];
+        width = new int[capacity];
+        height = new int[capacity];
+        health = new int[capacity];
+        maxHealth = new int[capacity];
+        type = new int[capacity];
+        slotOfRow = new int[capacity];
+        rowOfSlot = new int[capacity];
+        generation = new int[capacity];
+        freeSlots = new int[capacity];
+    }
+
+    // Appends a zeroed row and returns its handle
+    public int create() {
+        if (size == x.length) {
+            grow(size * 2);
+        }
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : slotCount++;
+        int row = size++;
+        slotOfRow[row] = slot;
+        rowOfSlot[slot] = row;
+
+        x[row] = 0;
+        y[row] = 0;
+        prevX[row] = 0;
+        prevY[row] = 0;
+        vx[row] = 0;
+        vy[row] = 0;
+        width[row] = 0;
+        height[row] = 0;
+        health[row] = 0;
+        maxHealth[row] = 0;
+        type[row] = 0;
+        return handle(slot);
+    }
+
+    public void remove(int row) {
+        int slot = slotOfRow[row];
+        int last = --size;
+        if (row != last) {
+            x[row] = x[last];
+            y[row] = y[last];
+            prevX[row] = prevX[last];
+            prevY[row] = prevY[last];
+            vx[row] = vx[last];
+            vy[row] = vy[last];
+            width[row] = width[last];
+            height[row] = height[last];
+            health[row] = health[last];
+            maxHealth[row] = maxHealth[last];
+            type[row] = type[last];
+            int movedSlot = slotOfRow[last];
+            slotOfRow[row] = movedSlot;
+            rowOfSlot[movedSlot] = row;
+        }
+        rowOfSlot[slot] = NO_ENTITY;
+        generation[slot] = (generation[slot] + 1) & GENERATION_MASK;
+        freeSlots[freeCount++] = slot;
+    }
+
+    // Drops every row whose health has reached zero
+    public void removeDead() {
+        for (int i = size - 1; i >= 0; i--) {
+            if (health[i] <= 0) {
+                remove(i);
+            }
+        }
+    }
+
+    public void clear() {
+        for (int i = size - 1; i >= 0; i--) {
+            remove(i);
+        }
+    }
+
+    // Moves every row by its velocity plus a shared vertical drift, keeping the previous position
+    public void integrate(int driftY) {
+        for (int i = 0; i < size; i++) {
+            prevX[i] = x[i];
+            prevY[i] = y[i];
+            x[i] += vx[i];
+            y[i] += vy[i] + driftY;
+        }
+    }
+
+    // Previous position = current, for ticks where nothing moves
+    public void settle() {
+        System.arraycopy(x, 0, prevX, 0, size);
+        System.arraycopy(y, 0, prevY, 0, size);
+    }
+
+    public int rowOf(int handle) {
+        int slot = handle & SLOT_MASK;
+        if (handle < 0 || slot >= slotCount || generation[slot] != handle >>> SLOT_BITS) {
+            return NO_ENTITY;
+        }
+        return rowOfSlot[slot];
+    }
+
+    public boolean isValid(int handle) {
+        return rowOf(handle) != NO_ENTITY;
+    }
+
+    public int handleAt(int row) {
+        return handle(slotOfRow[row]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int handle(int slot) {
+        return (generation[slot] << SLOT_BITS) | slot;
+    }
+
+    private void grow(int capacity) {
+        if (capacity > SLOT_MASK + 1) {
+            throw new IllegalStateException("Entity table full");
+        }
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        prevX = Arrays.copyOf(prevX, capacity);
+        prevY = Arrays.copyOf(prevY, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        health = Arrays.copyOf(health, capacity);
+        maxHealth = Arrays.copyOf(maxHealth, capacity);
+        type = Arrays.copyOf(type, capacity);
+        slotOfRow = Arrays.copyOf(slotOfRow, capacity);
+        rowOfSlot = Arrays.copyOf(rowOfSlot, capacity);
+        generation = Arrays.copyOf(generation, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+    }
+}
@@ -0,0 +1,363 @@
+// FileScoreStore.java
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Scores in two local files, no database server needed.
+//   scores.log  header + append-only 64-byte records in a memory-mapped file. Each record ends in
+//               a CRC32, so a record torn by a crash fails the check and is dropped on the next open.
+//   scores.idx  (score, record) pairs, best first. Written on close; if it doesn't cover the whole
+//               log (crash, old copy, damage) the missing records are re-indexed from the log.
+// The index is also kept in memory, so top-N reads only decode the records they return.
+public class FileScoreStore implements ScoreStore {
+    private static final int LOG_MAGIC = 0x4A475343; // "JGSC"
+    private static final int INDEX_MAGIC = 0x4A475349; // "JGSI"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    // Record layout: achievedOn long, score int, level int, difficulty byte,
+    // name length byte, name UTF-8 (42 bytes, zero padded), CRC32 int
+    private static final int RECORD_SIZE = 64;
+    private static final int SCORE = 8;
+    private static final int LEVEL = 12;
+    private static final int DIFFICULTY = 16;
+    private static final int NAME_LENGTH = 17;
+    private static final int NAME = 18;
+    private static final int NAME_BYTES = 42;
+    private static final int CRC = 60;
+
+    private static final int GROW_RECORDS = 1024;
+    // Fewer missing entries than this are inserted one by one; more and the index is re-sorted
+    private static final int MAX_INCREMENTAL_REINDEX = 1024;
+    private static final String[] DIFFICULTIES = { "Easy", "Normal", "Hard", "Custom" };
+
+    private final Path logFile;
+    private final Path indexFile;
+    // Appends happen on the writer's thread, so a game over never waits on the mapped file
+    private final ScoreWriter writer;
+    private final CRC32 crc = new CRC32();
+    private final byte[] record = new byte[RECORD_SIZE];
+
+    private FileChannel channel;
+    private MappedByteBuffer log;
+    private int count = 0;
+    private boolean closed = false;
+
+    // Record numbers sorted by score, highest first; equal scores in the order they were saved
+    private int[] indexScores = new int[GROW_RECORDS];
+    private int[] indexRecords = new int[GROW_RECORDS];
+
+    public FileScoreStore(Path directory, ScoreWriter.Listener listener) {
+        this.logFile = directory.resolve("scores.log");
+        this.indexFile = directory.resolve("scores.idx");
+        this.writer = new ScoreWriter(this::appendAll, listener);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "score-store-close"));
+    }
+
+    @Override
+    public synchronized void initialize() throws IOException {
+        if (channel != null || closed) {
+            return;
+        }
+        Files.createDirectories(logFile.toAbsolutePath().getParent());
+        channel = FileChannel.open(logFile, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        boolean fresh = size < HEADER_SIZE;
+        map(Math.max(size, HEADER_SIZE + (long) GROW_RECORDS * RECORD_SIZE));
+        if (fresh) {
+            log.putInt(0, LOG_MAGIC);
+            log.putInt(4, VERSION);
+            log.putInt(8, RECORD_SIZE);
+        } else if (log.getInt(0) != LOG_MAGIC || log.getInt(8) != RECORD_SIZE) {
+            channel.close();
+            channel = null;
+            throw new IOException("Not a score log: " + logFile);
+        }
+        count = recover();
+        loadIndex();
+    }
+
+    // Queues the result for the background writer
+    @Override
+    public boolean save(GameResult result) {
+        return writer.submit(result);
+    }
+
+    // Writer thread. An IOException has the writer retry the batch, so it throws before appending any of it.
+    private synchronized void appendAll(List<GameResult> batch) throws IOException {
+        initialize();
+        if (closed) {
+            System.err.println("Score files closed, dropping " + batch.size() + " result(s)");
+            return;
+        }
+        if (count + batch.size() > capacity()) {
+            map(channel.size() + (long) Math.max(GROW_RECORDS, batch.size()) * RECORD_SIZE);
+        }
+        for (GameResult result : batch) {
+            append(result);
+        }
+    }
+
+    @Override
+    public synchronized List<GameResult> top(String difficulty, int limit) throws IOException {
+        initialize();
+        if (closed) {
+            return Collections.emptyList();
+        }
+        List<GameResult> results = new ArrayList<>(Math.min(limit, count));
+        int code = difficulty == null ? -1 : difficultyCode(difficulty);
+        for (int i = 0; i < count && results.size() < limit; i++) {
+            int offset = offset(indexRecords[i]);
+            if (code < 0 || log.get(offset + DIFFICULTY) == code) {
+                results.add(read(offset));
+            }
+        }
+        return results;
+    }
+
+    // Drains the writer first (outside the lock it appends under), then writes the index
+    @Override
+    public void close() {
+        writer.close();
+        closeFiles();
+    }
+
+    private synchronized void closeFiles() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (channel == null) {
+            return;
+        }
+        try {
+            log.force();
+            writeIndex();
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing score files: " + e.getMessage());
+        }
+        channel = null;
+        log = null;
+    }
+
+    private void append(GameResult result) throws IOException {
+        if (count == capacity()) {
+            map(channel.size() + (long) GROW_RECORDS * RECORD_SIZE);
+        }
+
+        Arrays.fill(record, (byte) 0);
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        buffer.putLong(0, result.getAchievedOn());
+        buffer.putInt(SCORE, result.getScore());
+        buffer.putInt(LEVEL, result.getLevel());
+        buffer.put(DIFFICULTY, (byte) difficultyCode(result.getDifficulty()));
+        byte[] name = result.getPlayerName().getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(name.length, NAME_BYTES);
+        // Don't cut a multi-byte character in half
+        while (length < name.length && length > 0 && (name[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        buffer.put(NAME_LENGTH, (byte) length);
+        System.arraycopy(name, 0, record, NAME, length);
+        crc.reset();
+        crc.update(record, 0, CRC);
+        buffer.putInt(CRC, (int) crc.getValue());
+
+        // The CRC is the last field, so a crash mid-record leaves a record that fails the check
+        log.put(offset(count), record);
+        index(count, result.getScore());
+        count++;
+    }
+
+    private GameResult read(int offset) {
+        log.get(offset, record);
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        int code = record[DIFFICULTY];
+        return new GameResult(
+                new String(record, NAME, record[NAME_LENGTH] & 0xFF, StandardCharsets.UTF_8),
+                buffer.getInt(SCORE),
+                buffer.getInt(LEVEL),
+                code >= 0 && code < DIFFICULTIES.length ? DIFFICULTIES[code] : "Custom",
+                buffer.getLong(0));
+    }
+
+    // Counts the intact records and wipes anything a crash left behind them
+    private int recover() {
+        int capacity = capacity();
+        int valid = 0;
+        while (valid < capacity && isIntact(valid)) {
+            valid++;
+        }
+        int end = valid;
+        while (end < capacity && !isBlank(end)) {
+            end++;
+        }
+        if (end > valid) {
+            System.err.println("Dropped " + (end - valid) + " damaged score record(s) at the end of " + logFile);
+            for (int offset = offset(valid); offset < offset(end); offset++) {
+                log.put(offset, (byte) 0);
+            }
+        }
+        return valid;
+    }
+
+    private boolean isIntact(int recordNumber) {
+        int offset = offset(recordNumber);
+        log.get(offset, record);
+        crc.reset();
+        crc.update(record, 0, CRC);
+        return log.getInt(offset + CRC) == (int) crc.getValue();
+    }
+
+    private boolean isBlank(int recordNumber) {
+        int offset = offset(recordNumber);
+        for (int i = 0; i < RECORD_SIZE; i += 8) {
+            if (log.getLong(offset + i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void loadIndex() {
+        int covered = 0;
+        try {
+            if (Files.exists(indexFile)) {
+                covered = readIndex();
+            }
+        } catch (IOException e) {
+            System.err.println("Score index unreadable, rebuilding: " + e.getMessage());
+        }
+        if (count - covered > MAX_INCREMENTAL_REINDEX) {
+            rebuildIndex();
+            return;
+        }
+        for (int i = covered; i < count; i++) {
+            index(i, log.getInt(offset(i) + SCORE));
+        }
+    }
+
+    // Returns how many log records the index file covers, or 0 if it can't be trusted
+    private int readIndex() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != INDEX_MAGIC || buffer.getInt(4) != VERSION) {
+            return 0;
+        }
+        int covered = buffer.getInt(8);
+        if (covered < 0 || covered > count || buffer.remaining() != HEADER_SIZE + covered * 8L) {
+            return 0; // the log lost records the index still points at
+        }
+        crc.reset();
+        crc.update(buffer.array(), HEADER_SIZE, covered * 8);
+        if (buffer.getInt(12) != (int) crc.getValue()) {
+            return 0;
+        }
+        ensureIndexCapacity(covered);
+        for (int i = 0; i < covered; i++) {
+            indexScores[i] = buffer.getInt(HEADER_SIZE + i * 8);
+            indexRecords[i] = buffer.getInt(HEADER_SIZE + i * 8 + 4);
+        }
+        return covered;
+    }
+
+    private void rebuildIndex() {
+        // Sort keys: inverted score in the high half so the best come first, record number below
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = ((long) (Integer.MAX_VALUE - log.getInt(offset(i) + SCORE)) << 32) | i;
+        }
+        Arrays.sort(keys);
+        ensureIndexCapacity(count);
+        for (int i = 0; i < count; i++) {
+            indexRecords[i] = (int) keys[i];
+            indexScores[i] = Integer.MAX_VALUE - (int) (keys[i] >> 32);
+        }
+    }
+
+    private void writeIndex() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + count * 8);
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(HEADER_SIZE + i * 8, indexScores[i]);
+            buffer.putInt(HEADER_SIZE + i * 8 + 4, indexRecords[i]);
+        }
+        crc.reset();
+        crc.update(buffer.array(), HEADER_SIZE, count * 8);
+        buffer.putInt(0, INDEX_MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, count);
+        buffer.putInt(12, (int) crc.getValue());
+
+        Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        Files.write(temp, buffer.array());
+        Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Records are indexed in order, so recordNumber is also the number of entries so far.
+    // Inserts after every entry with the same score, so ties stay in save order.
+    private void index(int recordNumber, int score) {
+        int size = recordNumber;
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (indexScores[mid] >= score) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        ensureIndexCapacity(size + 1);
+        System.arraycopy(indexScores, lo, indexScores, lo + 1, size - lo);
+        System.arraycopy(indexRecords, lo, indexRecords, lo + 1, size - lo);
+        indexScores[lo] = score;
+        indexRecords[lo] = recordNumber;
+    }
+
+    private void ensureIndexCapacity(int needed) {
+        if (needed > indexScores.length) {
+            int length = Math.max(needed, indexScores.length * 2);
+            indexScores = Arrays.copyOf(indexScores, length);
+            indexRecords = Arrays.copyOf(indexRecords, length);
+        }
+    }
+
+    private void map(long size) throws IOException {
+        // Mapping past the end grows the file; the new space reads as blank records
+        log = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private int capacity() {
+        return (log.capacity() - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    private static int offset(int recordNumber) {
+        return HEADER_SIZE + recordNumber * RECORD_SIZE;
+    }
+
+    private static int difficultyCode(String difficulty) {
+        for (int i = 0; i < DIFFICULTIES.length; i++) {
+            if (DIFFICULTIES[i].equals(difficulty)) {
+                return i;
+            }
+        }
+        return DIFFICULTIES.length - 1;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "file " + logFile + ", " + count + " records, " + writer.getPendingCount() + " pending";
+    }
+}
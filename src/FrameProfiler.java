@@ -0,0 +1,342 @@
+// FrameProfiler.java
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.awt.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Where the tick and the frame spend their time. Each phase feeds a rolling window of recent samples
+// (p50/p99/max), along with the bytes each tick and frame allocated and the GC count. F3 in game shows
+// them; a JFR recording gets one jetgame.Tick and one jetgame.Frame event per tick and frame, so
+// `jfr print --events jetgame.Tick recording.jfr` works offline. With neither on, every call is a
+// single volatile read and nothing is measured. -Djetgame.profile=true starts with the overlay shown.
+public final class FrameProfiler {
+    static final int TICK = 0;
+    static final int TICK_PLAYER = 1;
+    static final int TICK_SPAWN = 2;
+    static final int TICK_ENTITIES = 3;
+    static final int TICK_COLLISIONS = 4;
+    static final int TICK_SWEEP = 5;
+    // From the EDT receiving a key to the tick that applies it
+    static final int INPUT_LAG = 6;
+    static final int FRAME = 7;
+    static final int DRAW_STARS = 8;
+    static final int DRAW_ENEMIES = 9;
+    static final int DRAW_PROJECTILES = 10;
+    static final int DRAW_PLAYER = 11;
+    static final int DRAW_HUD = 12;
+    // Active rendering only: the whole frame including show() and Toolkit.sync(), so minus "frame" it
+    // is what the flip costs
+    static final int FRAME_FLIPPED = 13;
+    private static final int PHASES = 14;
+    private static final String[] NAMES = { "tick", "  player", "  spawn", "  entities", "  collisions",
+            "  sweep", "input lag", "frame", "  stars", "  enemies", "  projectiles", "  player", "  hud",
+            "frame+flip" };
+
+    // Power of two; about 8 s of ticks
+    static final int WINDOW = 512;
+    private static final long OVERLAY_REFRESH_NANOS = 250_000_000L;
+
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private static final RollingHistogram[] histograms = new RollingHistogram[PHASES];
+    private static final RollingHistogram tickAllocations = new RollingHistogram();
+    private static final RollingHistogram frameAllocations = new RollingHistogram();
+    // Latest sample per phase, for the JFR events; each phase has a single writing thread
+    private static final long[] last = new long[PHASES];
+
+    static {
+        for (int i = 0; i < PHASES; i++) {
+            histograms[i] = new RollingHistogram();
+        }
+    }
+
+    private static volatile boolean overlayVisible = Boolean.getBoolean("jetgame.profile");
+    private static volatile boolean active = overlayVisible;
+    private static volatile EventType tickEventType;
+    private static volatile EventType frameEventType;
+
+    // Simulation thread only
+    private static long tickAllocStart;
+    // Render thread only
+    private static long frameAllocStart;
+    private static long lastGcCount = -1;
+    private static long frameGcs;
+    private static Overlay overlay;
+
+    private FrameProfiler() {
+    }
+
+    public static void toggleOverlay() {
+        overlayVisible = !overlayVisible;
+        active = overlayVisible || jfrRecording();
+    }
+
+    public static boolean isOverlayVisible() {
+        return overlayVisible;
+    }
+
+    // Start of a phase chain: the current time, or 0 when profiling is off (lap() then does nothing)
+    static long start() {
+        return active ? System.nanoTime() : 0L;
+    }
+
+    // Records the phase that began at `start` and returns the time the next one begins
+    static long lap(int phase, long start) {
+        if (start == 0L) {
+            return 0L;
+        }
+        long now = System.nanoTime();
+        histograms[phase].record(now - start);
+        last[phase] = now - start;
+        return now;
+    }
+
+    // A duration measured elsewhere, e.g. between two threads
+    static void record(int phase, long nanos) {
+        if (active) {
+            histograms[phase].record(nanos);
+            last[phase] = nanos;
+        }
+    }
+
+    static long tickStart() {
+        boolean on = overlayVisible || jfrRecording();
+        active = on;
+        if (!on) {
+            return 0L;
+        }
+        tickAllocStart = threads.getCurrentThreadAllocatedBytes();
+        return System.nanoTime();
+    }
+
+    static void tickEnd(long start) {
+        if (start == 0L) {
+            return;
+        }
+        lap(TICK, start);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - tickAllocStart;
+        tickAllocations.record(allocated);
+
+        if (tickEventType != null && tickEventType.isEnabled()) {
+            TickEvent event = new TickEvent();
+            event.player = last[TICK_PLAYER];
+            event.spawn = last[TICK_SPAWN];
+            event.entities = last[TICK_ENTITIES];
+            event.collisions = last[TICK_COLLISIONS];
+            event.sweep = last[TICK_SWEEP];
+            event.total = last[TICK];
+            event.allocated = allocated;
+            event.commit();
+        }
+    }
+
+    static long frameStart() {
+        if (!active) {
+            return 0L;
+        }
+        frameAllocStart = threads.getCurrentThreadAllocatedBytes();
+        return System.nanoTime();
+    }
+
+    static void frameEnd(long start) {
+        if (start == 0L) {
+            return;
+        }
+        lap(FRAME, start);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - frameAllocStart;
+        frameAllocations.record(allocated);
+        long gcCount = gcCount();
+        long gcs = lastGcCount < 0 ? 0 : gcCount - lastGcCount;
+        lastGcCount = gcCount;
+        frameGcs += gcs;
+
+        if (frameEventType != null && frameEventType.isEnabled()) {
+            FrameEvent event = new FrameEvent();
+            event.stars = last[DRAW_STARS];
+            event.enemies = last[DRAW_ENEMIES];
+            event.projectiles = last[DRAW_PROJECTILES];
+            event.player = last[DRAW_PLAYER];
+            event.hud = last[DRAW_HUD];
+            event.total = last[FRAME];
+            event.allocated = allocated;
+            event.gcs = (int) gcs;
+            event.commit();
+        }
+    }
+
+    // Render thread; draws nothing while hidden
+    static void drawOverlay(Graphics g) {
+        if (!overlayVisible) {
+            return;
+        }
+        if (overlay == null) {
+            overlay = new Overlay();
+        }
+        overlay.refresh();
+        overlay.draw(g, 10, 10);
+    }
+
+    // Only consulted once a recording has started the recorder; until then no JFR class is touched
+    private static boolean jfrRecording() {
+        if (!FlightRecorder.isInitialized()) {
+            return false;
+        }
+        if (tickEventType == null) {
+            tickEventType = EventType.getEventType(TickEvent.class);
+            frameEventType = EventType.getEventType(FrameEvent.class);
+        }
+        return tickEventType.isEnabled() || frameEventType.isEnabled();
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : collectors) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    // The last WINDOW samples of one value. One thread records, any thread may read.
+    static final class RollingHistogram {
+        private final AtomicLongArray samples = new AtomicLongArray(WINDOW);
+        private final AtomicLong count = new AtomicLong();
+
+        void record(long value) {
+            long n = count.get();
+            samples.lazySet((int) (n & (WINDOW - 1)), value);
+            count.lazySet(n + 1);
+        }
+
+        // Copies the window into `into` (sorted) and returns how many samples it holds
+        int sortedSnapshot(long[] into) {
+            int n = (int) Math.min(count.get(), WINDOW);
+            for (int i = 0; i < n; i++) {
+                into[i] = samples.get(i);
+            }
+            Arrays.sort(into, 0, n);
+            return n;
+        }
+
+        // Nearest-rank percentile of the first n values of a sorted snapshot; 0 when it is empty
+        static long percentile(long[] sorted, int n, double p) {
+            if (n == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * n) - 1;
+            return sorted[Math.max(0, Math.min(n - 1, index))];
+        }
+    }
+
+    private static final class Overlay extends HudWidget {
+        private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+        private static final Color FILL = new Color(0, 0, 0, 170);
+        private static final int LINE = 14;
+        private final long[] scratch = new long[WINDOW];
+        private long lastRefresh = 0;
+
+        Overlay() {
+            super(330, LINE * (PHASES + 4 + (LatencyProbe.ENABLED ? LatencyProbe.STAGES + 1 : 0)) + 10);
+        }
+
+        // The text changes a few times a second, not every frame
+        void refresh() {
+            long now = System.nanoTime();
+            if (now - lastRefresh >= OVERLAY_REFRESH_NANOS) {
+                lastRefresh = now;
+                invalidate();
+            }
+        }
+
+        @Override
+        protected void paint(Graphics2D g) {
+            g.setColor(FILL);
+            g.fillRect(0, 0, getWidth(), getHeight());
+            g.setFont(FONT);
+            g.setColor(Color.GREEN);
+            int y = LINE;
+            g.drawString(String.format(Locale.ROOT, "%-14s %7s %7s %7s", "ms", "p50", "p99", "max"), 6, y);
+            for (int phase = 0; phase < PHASES; phase++) {
+                y += LINE;
+                int n = histograms[phase].sortedSnapshot(scratch);
+                g.setColor(phase == TICK || phase == INPUT_LAG || phase == FRAME || phase == FRAME_FLIPPED
+                        ? Color.WHITE : Color.LIGHT_GRAY);
+                g.drawString(String.format(Locale.ROOT, "%-14s %7.3f %7.3f %7.3f", NAMES[phase],
+                        percentile(n, 0.50) / 1e6, percentile(n, 0.99) / 1e6, percentile(n, 1.0) / 1e6), 6, y);
+            }
+            g.setColor(Color.YELLOW);
+            y += LINE;
+            int n = tickAllocations.sortedSnapshot(scratch);
+            g.drawString(String.format(Locale.ROOT, "%-14s %7d %7d %7d", "alloc B/tick",
+                    percentile(n, 0.50), percentile(n, 0.99), percentile(n, 1.0)), 6, y);
+            y += LINE;
+            n = frameAllocations.sortedSnapshot(scratch);
+            g.drawString(String.format(Locale.ROOT, "%-14s %7d %7d %7d", "alloc B/frame",
+                    percentile(n, 0.50), percentile(n, 0.99), percentile(n, 1.0)), 6, y);
+            y += LINE;
+            g.drawString(String.format(Locale.ROOT, "%-14s %7d  (F3 hides)", "GCs", frameGcs), 6, y);
+            if (LatencyProbe.ENABLED) {
+                g.setColor(Color.CYAN);
+                y += LINE;
+                g.drawString("key to screen, ms", 6, y);
+                for (int stage = 0; stage < LatencyProbe.STAGES; stage++) {
+                    y += LINE;
+                    n = LatencyProbe.histogram(stage).sortedSnapshot(scratch);
+                    g.drawString(String.format(Locale.ROOT, "%-14s %7.2f %7.2f %7.2f", LatencyProbe.NAMES[stage],
+                            percentile(n, 0.50) / 1e6, percentile(n, 0.99) / 1e6, percentile(n, 1.0) / 1e6), 6, y);
+                }
+            }
+        }
+
+        private long percentile(int n, double p) {
+            return RollingHistogram.percentile(scratch, n, p);
+        }
+    }
+
+    @Name("jetgame.Tick")
+    @Label("Game Tick")
+    @Category("JetGame")
+    @StackTrace(false)
+    @Description("Time spent in each phase of one simulation tick")
+    static final class TickEvent extends Event {
+        @Label("Player") @Timespan(Timespan.NANOSECONDS) long player;
+        @Label("Spawn") @Timespan(Timespan.NANOSECONDS) long spawn;
+        @Label("Entities") @Timespan(Timespan.NANOSECONDS) long entities;
+        @Label("Collisions") @Timespan(Timespan.NANOSECONDS) long collisions;
+        @Label("Sweep") @Timespan(Timespan.NANOSECONDS) long sweep;
+        @Label("Total") @Timespan(Timespan.NANOSECONDS) long total;
+        @Label("Allocated") @DataAmount long allocated;
+    }
+
+    @Name("jetgame.Frame")
+    @Label("Game Frame")
+    @Category("JetGame")
+    @StackTrace(false)
+    @Description("Time spent drawing each layer of one frame")
+    static final class FrameEvent extends Event {
+        @Label("Stars") @Timespan(Timespan.NANOSECONDS) long stars;
+        @Label("Enemies") @Timespan(Timespan.NANOSECONDS) long enemies;
+        @Label("Projectiles") @Timespan(Timespan.NANOSECONDS) long projectiles;
+        @Label("Player") @Timespan(Timespan.NANOSECONDS) long player;
+        @Label("HUD") @Timespan(Timespan.NANOSECONDS) long hud;
+        @Label("Total") @Timespan(Timespan.NANOSECONDS) long total;
+        @Label("Allocated") @DataAmount long allocated;
+        @Label("GCs") int gcs;
+    }
+}
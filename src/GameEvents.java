@@ -0,0 +1,12 @@
+// GameEvents.java
+// Things the simulation reports to whoever is watching it (sounds, score saving, ...)
+public interface GameEvents {
+    GameEvents NONE = new GameEvents() { };
+
+    default void shotFired() { }
+    default void enemyHit(int type) { }
+    default void enemyDestroyed(int type) { }
+    default void playerHit() { }
+    default void levelCompleted(int level) { }
+    default void gameOver(int score, int level) { }
+}
@@ -0,0 +1,145 @@
+// GameLoop.java
+import java.awt.GraphicsEnvironment;
+import java.awt.DisplayMode;
+
+public class GameLoop implements Runnable {
+    public static final int TICKS_PER_SECOND = 60;
+    public static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+    private static final int MAX_STEPS_PER_FRAME = 5;
+
+    private final Runnable tick;
+    private final Runnable render;
+    private final long frameNanos;
+    private volatile boolean running = false;
+    private Thread thread;
+    // Guarded by this: set once the loop thread has left run(), and what to do when it does
+    private boolean exited = false;
+    private Runnable whenStopped;
+
+    public GameLoop(Runnable tick, Runnable render) {
+        this(tick, render, detectRefreshRate());
+    }
+
+    public GameLoop(Runnable tick, Runnable render, int framesPerSecond) {
+        this.tick = tick;
+        this.render = render;
+        this.frameNanos = 1_000_000_000L / Math.max(1, framesPerSecond);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        exited = false;
+        thread = new Thread(this, "game-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        stop(null);
+    }
+
+    // Stops the loop. whenStopped runs once the loop thread has finished its last tick: on that thread
+    // on its way out, or right here if it is already gone, so it never overlaps a tick. The join is
+    // short; a tick that overruns it does not hold up the caller.
+    public void stop(Runnable whenStopped) {
+        Thread loopThread;
+        boolean runNow;
+        synchronized (this) {
+            running = false;
+            loopThread = thread;
+            runNow = loopThread == null || exited;
+            if (!runNow) {
+                this.whenStopped = whenStopped;
+            }
+        }
+        if (loopThread != null && loopThread != Thread.currentThread()) {
+            loopThread.interrupt();
+            try {
+                loopThread.join(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (runNow && whenStopped != null) {
+            whenStopped.run();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void run() {
+        try {
+            loop();
+        } finally {
+            Runnable then;
+            synchronized (this) {
+                exited = true;
+                then = whenStopped;
+                whenStopped = null;
+            }
+            if (then != null) {
+                then.run();
+            }
+        }
+    }
+
+    private void loop() {
+        long previous = System.nanoTime();
+        long lag = 0;
+        long nextFrame = previous;
+
+        while (running) {
+            long now = System.nanoTime();
+            lag += now - previous;
+            previous = now;
+
+            // Fixed-step catch-up, capped so a long stall doesn't spiral
+            int steps = 0;
+            while (lag >= TICK_NANOS && steps < MAX_STEPS_PER_FRAME) {
+                tick.run();
+                lag -= TICK_NANOS;
+                steps++;
+            }
+            if (lag >= TICK_NANOS) {
+                lag %= TICK_NANOS;
+            }
+
+            if (now >= nextFrame) {
+                render.run();
+                nextFrame = Math.max(nextFrame + frameNanos, now);
+            }
+
+            long nextTick = now + (TICK_NANOS - lag);
+            sleepUntil(Math.min(nextTick, nextFrame));
+        }
+    }
+
+    private void sleepUntil(long deadline) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining > 1_000_000L) {
+            try {
+                Thread.sleep((remaining - 500_000L) / 1_000_000L, (int) ((remaining - 500_000L) % 1_000_000L));
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        } else if (remaining > 0) {
+            Thread.yield();
+        }
+    }
+
+    private static int detectRefreshRate() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return TICKS_PER_SECOND;
+        }
+        DisplayMode mode = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDisplayMode();
+        int rate = mode.getRefreshRate();
+        return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? TICKS_PER_SECOND : rate;
+    }
+}
\ No newline at end of file
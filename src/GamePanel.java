@@ -1,312 +1,207 @@
 // GamePanel.java
 import javax.swing.*;
-import javax.swing.Timer;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.*;
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
 
 public class GamePanel extends JPanel {
-    private final List<Projectile> projectiles = new ArrayList<>();
-    private final List<Enemy> enemies = new ArrayList<>();
-    private int score = 0;
-    private final Random random = new Random();
-    private int spawnTimer = 0;
-
-    private final Player player;
-    private final Image background;
-    private int backgroundY = 0;
-    private int scrollSpeed = 2;
-
-    private final LevelManager levelManager;
-    private boolean isLevelTransition = false;
-    private long transitionStartTime;
-    private boolean gameOver = false;
-    private final Image playerLifeIcon;
+    private final GameWorld world;
+    private final KeyboardInput keyboard = new KeyboardInput();
+    private final ReplayRecorder recorder;
+    // Simulation thread only, or after it has ended (GameLoop.stop's callback)
+    private boolean replaySaved = false;
+    private final GameRenderer renderer;
     private final String playerName;
     private final int initialDifficulty;
+    private final int initialShipType;
     private final GameWindow parent;
 
-    private javax.swing.Timer gameTimer;  // Changed to javax.swing.Timer
+    private final GameLoop gameLoop;
+    private final ActiveRenderer activeRenderer;
+    private final SnapshotExchange snapshots = new SnapshotExchange();
+    // Simulation thread only
+    private boolean shotThisTick = false;
 
     public GamePanel(GameWindow parent, String playerName, int difficulty, int shipType) {
         this.parent = parent;
         this.playerName = playerName;
         this.initialDifficulty = difficulty;
-        this.levelManager = new LevelManager(difficulty);
-
-        this.background = ResourceManager.getImage("/background.png");
-        this.player = new Player(380, 450, shipType);
-        this.playerLifeIcon = ResourceManager.getImage("ship_" + shipType + ".png")
-                .getScaledInstance(30, 36, Image.SCALE_SMOOTH);
+        this.initialShipType = shipType;
+        this.recorder = Boolean.getBoolean("jetgame.recordReplays") ? new ReplayRecorder(keyboard) : null;
+        Long seed = Long.getLong("jetgame.seed");
+        this.world = new GameWorld(0, 0, difficulty, shipType, ResourceManager.getCollisionMasks(shipType),
+                recorder != null ? recorder : keyboard,
+                new SoundEvents(), seed != null ? seed : new Random().nextLong());
+
+        this.renderer = new GameRenderer(playerName, difficulty, shipType);
+
+        snapshots.prime(world::capture);
+        LatencyProbe.reset();
+        if (ActiveRenderer.isEnabled()) {
+            this.activeRenderer = new ActiveRenderer(this::renderFrame);
+            setLayout(new BorderLayout());
+            add(activeRenderer.getCanvas(), BorderLayout.CENTER);
+            this.gameLoop = new GameLoop(this::tick, () -> {
+                activeRenderer.render();
+                LatencyProbe.presented(); // after show() and Toolkit.sync()
+            });
+        } else {
+            this.activeRenderer = null;
+            this.gameLoop = new GameLoop(this::tick, this::repaint);
+        }
 
         setFocusable(true);
         setupKeyListeners();
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                world.resize(getWidth(), getHeight());
+            }
+        });
         startGameLoop();
     }
 
     private void setupKeyListeners() {
+        addKeyListener(keyboard);
         addKeyListener(new KeyAdapter() {
             @Override
             public void keyPressed(KeyEvent e) {
-                handleKeyPress(e);
-            }
-
-            @Override
-            public void keyReleased(KeyEvent e) {
-                if (isMovementKey(e.getKeyCode())) {
-                    player.handleKeyRelease(e.getKeyCode());
+                if (e.getKeyCode() == KeyEvent.VK_F3) {
+                    FrameProfiler.toggleOverlay();
+                } else if (world.isGameOver() && e.getKeyCode() == KeyEvent.VK_R) {
+                    resetGame();
+                } else if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+                    parent.showMenu();
                 }
             }
-
-            private boolean isMovementKey(int keyCode) {
-                return keyCode == KeyEvent.VK_LEFT || keyCode == KeyEvent.VK_RIGHT ||
-                        keyCode == KeyEvent.VK_UP || keyCode == KeyEvent.VK_DOWN;
-            }
         });
     }
 
-    private void handleKeyPress(KeyEvent e) {
-        if (gameOver && e.getKeyCode() == KeyEvent.VK_R) {
-            resetGame();
-            return;
-        }
-
-        if (e.getKeyCode() == KeyEvent.VK_SPACE && player.canShoot()) {
-            projectiles.add(new Projectile(player.getCenterX(), player.getY()));
-            player.shoot();
-            SoundManager.playSound("/shoot.wav");
-        } else if (isMovementKey(e.getKeyCode())) {
-            player.handleKeyPress(e.getKeyCode());
-        } else if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
-            parent.showMenu();
-        }
-    }
-
-    private boolean isMovementKey(int keyCode) {
-        return keyCode == KeyEvent.VK_LEFT || keyCode == KeyEvent.VK_RIGHT ||
-                keyCode == KeyEvent.VK_UP || keyCode == KeyEvent.VK_DOWN;
-    }
-
     private void startGameLoop() {
-        gameTimer = new Timer(16, e -> {
-            if (!gameOver) {
-                updateGame();
-            }
-            repaint();
-        });
-        gameTimer.start();
+        gameLoop.start();
         SoundManager.playSound("/game_start.wav");
     }
 
-    private void updateGame() {
-        if (isLevelTransition) {
-            if (System.currentTimeMillis() - transitionStartTime > 2000) {
-                isLevelTransition = false;
-                levelManager.levelUp();
-                scrollSpeed = 2 + levelManager.getCurrentLevel() / 3;
+    // Runs on the simulation thread at a fixed rate
+    private void tick() {
+        Player player = world.getPlayer();
+        int x = player.getX();
+        int y = player.getY();
+        shotThisTick = false;
+        world.tick();
+        if (LatencyProbe.ENABLED && keyboard.getLastPressNanos() != 0) {
+            // Only presses with something to see are followed: a shot, or the ship moving
+            int presses = keyboard.getLastPresses();
+            boolean moved = player.getX() != x || player.getY() != y;
+            if ((presses & InputSource.FIRE) != 0 && shotThisTick || (presses & ~InputSource.FIRE) != 0 && moved) {
+                LatencyProbe.ticked(keyboard.getLastPressNanos(), world.getTickCount());
             }
-            return;
         }
-
-        player.update();
-        updateBackground();
-
-        if (++spawnTimer >= levelManager.getAdjustedSpawnInterval()) {
-            spawnEnemy();
-            spawnTimer = 0;
+        world.capture(snapshots.beginWrite());
+        snapshots.publish();
+        if (world.isGameOver()) {
+            saveReplay();
         }
+    }
 
-        enemies.forEach(e -> e.update(scrollSpeed));
-        projectiles.forEach(Projectile::update);
-
-        handleCollisions();
-
-        enemies.removeIf(e -> !e.isAlive() || e.isOutOfScreen(getHeight()));
-        projectiles.removeIf(p -> !p.isActive());
-
-        if (levelManager.isLevelCompleted()) {
-            isLevelTransition = true;
-            transitionStartTime = System.currentTimeMillis();
-            SoundManager.playSound("level_up.wav");
+    // -Djetgame.recordReplays=true writes replays/<time>.jgr at game over or when leaving the game.
+    // The recording is finished where the world can't change under it (the simulation thread, or once
+    // it has stopped); the file is written on a thread of its own so no tick waits on the disk.
+    private void saveReplay() {
+        if (recorder == null || replaySaved) {
+            return;
         }
+        replaySaved = true;
+        Replay replay = recorder.finish(world, initialDifficulty, initialShipType);
+        Path file = Paths.get("replays", new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".jgr");
+        // Not a daemon, so quitting right after game over still leaves a complete file
+        new Thread(() -> {
+            try {
+                replay.write(file);
+                System.out.println("Replay saved to " + file);
+            } catch (IOException e) {
+                System.err.println("Could not save replay: " + e.getMessage());
+            }
+        }, "replay-writer").start();
     }
 
-    private void updateBackground() {
-        backgroundY += scrollSpeed;
-        if (backgroundY >= getHeight()) {
-            backgroundY = 0;
+    // Turns simulation events into sounds and the end-of-game save
+    private class SoundEvents implements GameEvents {
+        @Override
+        public void shotFired() {
+            shotThisTick = true;
+            SoundManager.playSound("/shoot.wav");
         }
-    }
 
-    private void spawnEnemy() {
-        int baseSpeed = levelManager.getEnemySpeed();
-        int type = random.nextInt(3); // 0: basic, 1: fast, 2: tank
-        enemies.add(new Enemy(
-                random.nextInt(getWidth() - 50),
-                -50,
-                baseSpeed,
-                type));
-    }
+        @Override
+        public void enemyHit(int type) {
+            SoundManager.playSound("/hit.wav");
+        }
 
-    private void handleCollisions() {
-        // Projectile-enemy collisions
-        new ArrayList<>(enemies).forEach(enemy -> {
-            new ArrayList<>(projectiles).forEach(projectile -> {
-                if (projectile.isActive() && enemy.isAlive() &&
-                        projectile.getHitbox().intersects(enemy.getHitbox())) {
-                    enemy.takeDamage(1);
-                    projectile.setActive(false);
+        @Override
+        public void enemyDestroyed(int type) {
+            SoundManager.playSound("/explosion.wav");
+        }
 
-                    if (!enemy.isAlive()) {
-                        score += (enemy.getType() == 0) ? 10 :
-                                (enemy.getType() == 1) ? 15 : 30;
-                        levelManager.enemyDefeated();
-                        SoundManager.playSound("/explosion.wav");
-                    } else {
-                        SoundManager.playSound("/hit.wav");
-                    }
-                }
-            });
-        });
+        @Override
+        public void playerHit() {
+            SoundManager.playSound("/player_hit.wav");
+        }
 
+        @Override
+        public void levelCompleted(int level) {
+            SoundManager.playSound("level_up.wav");
+        }
 
-        // Player-enemy collisions
-        new ArrayList<>(enemies).forEach(enemy -> {
-            if (enemy.isAlive() && enemy.getHitbox().intersects(player.getHitbox())) {
-                enemy.takeDamage(enemy.getMaxHealth()); // Changed from getHealth() to getMaxHealth()
-                player.takeDamage();
-                SoundManager.playSound("/player_hit.wav");
-                if (player.getHealth() <= 0) {
-                    gameOver = true;
-                    SoundManager.playSound("/game_over.wav");
-                    DatabaseManager.saveGameResult(
-                            playerName,
-                            score,
-                            levelManager.getCurrentLevel(),
-                            getDifficultyString(initialDifficulty)
-                    );
-                }
-            }
-        });
+        @Override
+        public void gameOver(int score, int level) {
+            SoundManager.playSound("/game_over.wav");
+            DatabaseManager.saveGameResult(
+                    playerName,
+                    score,
+                    level,
+                    LevelManager.difficultyName(initialDifficulty)
+            );
+        }
     }
 
     private void resetGame() {
-        if (gameTimer != null) {
-            gameTimer.stop();
-        }
-
-
+        gameLoop.stop();
         parent.showMenu();
     }
 
     public void cleanUp() {
-        if (gameTimer != null) {
-            gameTimer.stop();
+        gameLoop.stop(this::saveReplay);
+        if (activeRenderer != null) {
+            activeRenderer.dispose();
+        }
+        if (LatencyProbe.ENABLED) {
+            LatencyProbe.printReport();
         }
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-
-        // Scrolling background
-        g.drawImage(background, 0, backgroundY, getWidth(), getHeight(), null);
-        g.drawImage(background, 0, backgroundY - getHeight(), getWidth(), getHeight(), null);
-
-        // Entities
-        enemies.forEach(e -> e.draw(g));
-        projectiles.forEach(p -> p.draw(g));
-        player.draw(g);
-
-        // UI
-        drawInfoBoard(g);
-        drawLives(g);
-
-        // Level transition
-        if (isLevelTransition) {
-            g.setColor(new Color(0, 0, 0, 180));
-            g.fillRect(0, 0, getWidth(), getHeight());
-            g.setColor(Color.YELLOW);
-            g.setFont(new Font("Arial", Font.BOLD, 40));
-            String message = "LEVEL " + (levelManager.getCurrentLevel() + 1) + "!";
-            g.drawString(message,
-                    getWidth() / 2 - g.getFontMetrics().stringWidth(message) / 2,
-                    getHeight() / 2);
+        if (activeRenderer == null) {
+            renderFrame((Graphics2D) g, getWidth(), getHeight());
+            // Swing copies its back buffer to the screen once painting returns; this is as close as it gets
+            LatencyProbe.presented();
         }
-
-        // Game Over
-        if (gameOver) {
-            drawGameOverScreen(g);
-        }
-    }
-
-    private void drawInfoBoard(Graphics g) {
-        Graphics2D g2d = (Graphics2D) g;
-        g2d.setColor(new Color(0, 0, 0, 150));
-        g2d.fillRoundRect(getWidth() - 210, 10, 200, 100, 15, 15);
-        g2d.setColor(new Color(255, 255, 255, 100));
-        g2d.setStroke(new BasicStroke(2));
-        g2d.drawRoundRect(getWidth() - 210, 10, 200, 100, 15, 15);
-
-        g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Arial", Font.BOLD, 16));
-
-        int yPos = 35;
-        g2d.drawString("Player: " + playerName, getWidth() - 200, yPos);
-        g2d.drawString("Score: " + score, getWidth() - 200, yPos + 25);
-        g2d.drawString("Level: " + levelManager.getCurrentLevel(), getWidth() - 200, yPos + 50);
-        g2d.drawString("Enemies: " + levelManager.getEnemiesDefeated() + "/" +
-                levelManager.getEnemiesToNextLevel(), getWidth() - 200, yPos + 75);
     }
 
-    private void drawLives(Graphics g) {
-        int x = 20;
-        int y = getHeight() - 50;
-
-        for (int i = 0; i < player.getHealth(); i++) {
-            g.drawImage(playerLifeIcon, x + (i * 35), y, null);
-        }
-
-        g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.PLAIN, 14));
-        g.drawString("Difficulty: " + getDifficultyString(initialDifficulty), x, y - 20);
-    }
-
-    private String getDifficultyString(int difficulty) {
-        switch (difficulty) {
-            case 1: return "Easy";
-            case 3: return "Normal";
-            case 5: return "Hard";
-            default: return "Custom";
-        }
-    }
-
-    private void drawGameOverScreen(Graphics g) {
-        g.setColor(new Color(0, 0, 0, 200));
-        g.fillRect(0, 0, getWidth(), getHeight());
-
-        g.setColor(Color.RED);
-        g.setFont(new Font("Arial", Font.BOLD, 40));
-        String message = "GAME OVER - Score: " + score;
-        g.drawString(message,
-                getWidth() / 2 - g.getFontMetrics().stringWidth(message) / 2,
-                getHeight() / 2);
-
-        g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.PLAIN, 20));
-        g.drawString("Press R to return to menu",
-                getWidth() / 2 - 100,
-                getHeight() / 2 + 50);
-
-        // Display highscores
-        List<String> highscores = DatabaseManager.getHighScores(20);
-        g.setFont(new Font("Arial", Font.BOLD, 24));
-        g.drawString("Top Scores:", 50, getHeight() / 2 + 100);
-
-        g.setFont(new Font("Arial", Font.PLAIN, 18));
-        for (int i = 0; i < Math.min(5, highscores.size()); i++) {
-            g.drawString(highscores.get(i), 50, getHeight() / 2 + 130 + i * 25);
-        }
+    // Called from paintComponent in passive mode, or directly by the game loop in active mode
+    private void renderFrame(Graphics2D g, int width, int height) {
+        long profile = FrameProfiler.frameStart();
+        WorldSnapshot s = snapshots.acquireLatest();
+        renderer.render(g, s, s.alpha(System.nanoTime()), width, height);
+        LatencyProbe.drawn(s.tick);
+        FrameProfiler.frameEnd(profile);
+        FrameProfiler.drawOverlay(g);
     }
 }
\ No newline at end of file
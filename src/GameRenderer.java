@@ -0,0 +1,46 @@
+// GameRenderer.java
+import java.awt.*;
+
+// Draws one WorldSnapshot. Used by GamePanel in both render modes and by the benchmarks.
+public class GameRenderer {
+    static final int LIFE_ICON_WIDTH = 30;
+    static final int LIFE_ICON_HEIGHT = 36;
+
+    private final Starfield starfield = Starfield.shared();
+    private final Sprite[] playerSprites;
+    private final Hud hud;
+
+    public GameRenderer(String playerName, int difficulty, int shipType) {
+        this.playerSprites = Player.loadSprites(shipType);
+        Sprite lifeIcon = ResourceManager.getSprite("/ship_" + shipType + ".png", LIFE_ICON_WIDTH, LIFE_ICON_HEIGHT);
+        this.hud = new Hud(playerName, LevelManager.difficultyName(difficulty), lifeIcon);
+    }
+
+    public void render(Graphics2D g, WorldSnapshot s, double alpha, int width, int height) {
+        // Scrolling starfield; also clears the view
+        long t = FrameProfiler.start();
+        starfield.draw(g, s.prevScroll + (s.scroll - s.prevScroll) * alpha, width, height);
+        t = FrameProfiler.lap(FrameProfiler.DRAW_STARS, t);
+
+        // Entities
+        for (int i = 0; i < s.enemyCount; i++) {
+            Enemy.draw(g, s.enemyType[i], s.enemyX[i],
+                    WorldSnapshot.lerp(s.enemyPrevY[i], s.enemyY[i], alpha),
+                    s.enemyWidth[i], s.enemyHeight[i], s.enemyHealth[i], s.enemyMaxHealth[i]);
+        }
+        t = FrameProfiler.lap(FrameProfiler.DRAW_ENEMIES, t);
+        for (int i = 0; i < s.projectileCount; i++) {
+            Projectile.draw(g, s.projectileX[i], WorldSnapshot.lerp(s.projectilePrevY[i], s.projectileY[i], alpha));
+        }
+        t = FrameProfiler.lap(FrameProfiler.DRAW_PROJECTILES, t);
+        Player.draw(g, playerSprites[s.playerSprite],
+                WorldSnapshot.lerp(s.playerPrevX, s.playerX, alpha),
+                WorldSnapshot.lerp(s.playerPrevY, s.playerY, alpha),
+                s.playerHealth, s.playerInvincible);
+        t = FrameProfiler.lap(FrameProfiler.DRAW_PLAYER, t);
+
+        // HUD and overlays, each redrawn only when what it shows changes
+        hud.draw(g, s, width, height);
+        FrameProfiler.lap(FrameProfiler.DRAW_HUD, t);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+// GameResult.java
+// One finished game as stored in game_results
+public class GameResult {
+    private final String playerName;
+    private final int score;
+    private final int level;
+    private final String difficulty;
+    private final long achievedOn;
+
+    public GameResult(String playerName, int score, int level, String difficulty, long achievedOn) {
+        this.playerName = playerName;
+        this.score = score;
+        this.level = level;
+        this.difficulty = difficulty;
+        this.achievedOn = achievedOn;
+    }
+
+    public String getPlayerName() { return playerName; }
+    public int getScore() { return score; }
+    public int getLevel() { return level; }
+    public String getDifficulty() { return difficulty; }
+    public long getAchievedOn() { return achievedOn; }
+}
@@ -4,45 +4,49 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class GameWindow extends JFrame {
     private MenuPanel menuPanel;
     private GamePanel gamePanel;
     private HighscorePanel highscorePanel;
     private SettingsPanel settingsPanel;
+    private LoadingPanel loadingPanel;
 
-    public GameWindow() {
+    public GameWindow(AssetLoader loader, CompletableFuture<Void> menuReady) {
         setTitle("Space Defender");
         setSize(800, 600);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setResizable(false);
         setLocationRelativeTo(null);
 
-        try {
-            ImageIcon icon = new ImageIcon(getClass().getResource("/game_icon.png"));
-            setIconImage(icon.getImage());
-        } catch (Exception e) {
-            System.err.println("Icon image not found, using default");
-        }
-
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
         } catch (Exception e) {
             System.err.println("Couldn't set system look and feel");
         }
 
-        showMenu();
+        // Loading screen until the menu's own assets are decoded; the rest keep loading behind the menu
+        loadingPanel = new LoadingPanel();
+        loader.setListener(loadingPanel);
+        switchToPanel(loadingPanel);
+        menuReady.whenComplete((ignored, error) -> SwingUtilities.invokeLater(() -> {
+            setIconImage(ResourceManager.getImage("/game_icon.png"));
+            showMenu();
+        }));
         setVisible(true);
     }
 
     public void showMenu() {
         cleanUpCurrentPanel();
+        ResourceManager.enterScene(ResourceManager.menuAssets());
         menuPanel = new MenuPanel(this);
         switchToPanel(menuPanel);
     }
 
     public void startGame(String playerName, int difficulty, int shipType) {
         cleanUpCurrentPanel();
+        ResourceManager.enterScene(ResourceManager.gameAssets());
         gamePanel = new GamePanel(this, playerName, difficulty, shipType);
         switchToPanel(gamePanel);
     }
@@ -60,6 +64,10 @@ public class GameWindow extends JFrame {
     }
 
     private void cleanUpCurrentPanel() {
+        if (loadingPanel != null) {
+            remove(loadingPanel);
+            loadingPanel = null;
+        }
         if (gamePanel != null) {
             gamePanel.cleanUp();
             remove(gamePanel);
@@ -87,10 +95,15 @@ public class GameWindow extends JFrame {
     }
 
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> {
-            ResourceManager.preloadResources();
+        DatabaseManager.warmUp();
+        // Decoding starts before Swing is even up; menu assets are queued first so they finish first
+        AssetLoader loader = new AssetLoader();
+        CompletableFuture<Void> menuReady = loader.load(ResourceManager.menuAssets());
+        loader.load(ResourceManager.gameAssets());
+        loader.reportWhenLoaded();
 
-            GameWindow window = new GameWindow();
+        SwingUtilities.invokeLater(() -> {
+            GameWindow window = new GameWindow(loader, menuReady);
             window.setLocationRelativeTo(null);
 
             // Animation d'ouverture
@@ -124,9 +137,11 @@ public class GameWindow extends JFrame {
             scoresArea.setForeground(Color.WHITE);
             scoresArea.setFont(new Font("Arial", Font.PLAIN, 18));
 
-            // Utilisez DatabaseManager au lieu de HighscoreManager
+            // Lu depuis le cache du classement, sans requête SQL
             List<String> highscores = DatabaseManager.getHighScores(10); // 10 meilleurs scores
-            if (highscores.isEmpty()) {
+            if (!DatabaseManager.isLeaderboardLoaded()) {
+                scoresArea.setText("Loading scores...");
+            } else if (highscores.isEmpty()) {
                 scoresArea.setText("No scores recorded yet");
             } else {
                 StringBuilder sb = new StringBuilder();
@@ -0,0 +1,338 @@
+// GameWorld.java
+import java.util.Random;
+
+// The whole simulation: no Swing, no sound, no database. Step it with tick(); GamePanel only draws it.
+public class GameWorld {
+    private static final int TRANSITION_TICKS = 2 * GameLoop.TICKS_PER_SECOND;
+    // Cell size matches the largest hitbox (the player's 50x60)
+    private static final int COLLISION_CELL_SIZE = 60;
+    private static final boolean CHECK_COLLISIONS = Boolean.getBoolean("jetgame.collisionCheck");
+
+    private final EntityStore store = new EntityStore();
+    private final SpatialGrid projectileGrid = new SpatialGrid(COLLISION_CELL_SIZE);
+    private final SpatialGrid enemyGrid = new SpatialGrid(COLLISION_CELL_SIZE);
+    private final long seed;
+    private final Random random;
+    private final Player player;
+    private final LevelManager levelManager;
+    private final InputSource input;
+    private final GameEvents events;
+    private final CollisionMasks masks;
+
+    private volatile int width;
+    private volatile int height;
+    private int score = 0;
+    private int spawnTimer = 0;
+    private int backgroundY = 0;
+    // Total distance scrolled, for the starfield; visual only, so not part of stateHash
+    private int prevScroll = 0;
+    private int scroll = 0;
+    private int scrollSpeed = 2;
+    private boolean isLevelTransition = false;
+    private int transitionTicks = 0;
+    private volatile boolean gameOver = false;
+    private long tickCount = 0;
+    // Box overlaps are confirmed against the sprites' collision masks; off only to benchmark the boxes alone
+    boolean pixelCollisions = true;
+
+    public GameWorld(int width, int height, int difficulty, int shipType, CollisionMasks masks,
+                     InputSource input, GameEvents events) {
+        this(width, height, difficulty, shipType, masks, input, events, new Random().nextLong());
+    }
+
+    // Same seed, same playfield, same masks and same input masks give the same game, tick for tick
+    public GameWorld(int width, int height, int difficulty, int shipType, CollisionMasks masks,
+                     InputSource input, GameEvents events, long seed) {
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.width = width;
+        this.height = height;
+        this.levelManager = new LevelManager(difficulty);
+        this.player = new Player(380, 450, shipType, masks.ship);
+        this.input = input;
+        this.events = events;
+        this.masks = masks;
+    }
+
+    // The Swing view only learns its size after layout
+    public void resize(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    public void tick() {
+        if (width <= 50 || height <= 0) {
+            return; // not laid out yet
+        }
+        long profile = FrameProfiler.tickStart();
+        int actions = input.poll();
+        // Paused ticks (level transition, game over) leave the stars, ships and shots where they are,
+        // so the renderer has nothing left to interpolate
+        prevScroll = scroll;
+        if (gameOver || isLevelTransition) {
+            store.enemies.settle();
+            store.projectiles.settle();
+            player.settle();
+        }
+        if (!gameOver) {
+            update(actions);
+        }
+        tickCount++;
+        FrameProfiler.tickEnd(profile);
+    }
+
+    private void update(int actions) {
+        if (isLevelTransition) {
+            if (++transitionTicks > TRANSITION_TICKS) {
+                isLevelTransition = false;
+                levelManager.levelUp();
+                scrollSpeed = 2 + levelManager.getCurrentLevel() / 3;
+            }
+            return;
+        }
+
+        long t = FrameProfiler.start();
+        if ((actions & InputSource.FIRE) != 0 && player.canShoot()) {
+            Projectile.spawn(store.projectiles, player.getCenterX(), player.getY());
+            player.shoot();
+            events.shotFired();
+        }
+        player.update(actions);
+        updateBackground();
+        t = FrameProfiler.lap(FrameProfiler.TICK_PLAYER, t);
+
+        if (++spawnTimer >= levelManager.getAdjustedSpawnInterval()) {
+            spawnEnemy();
+            spawnTimer = 0;
+        }
+        t = FrameProfiler.lap(FrameProfiler.TICK_SPAWN, t);
+
+        EntityTable enemies = store.enemies;
+        enemies.integrate(scrollSpeed);
+        store.projectiles.integrate(0);
+        Projectile.expire(store.projectiles);
+        t = FrameProfiler.lap(FrameProfiler.TICK_ENTITIES, t);
+
+        handleCollisions();
+        t = FrameProfiler.lap(FrameProfiler.TICK_COLLISIONS, t);
+
+        for (int i = 0; i < enemies.size; i++) {
+            if (enemies.y[i] > height) {
+                enemies.health[i] = 0;
+            }
+        }
+        enemies.removeDead();
+        store.projectiles.removeDead();
+        FrameProfiler.lap(FrameProfiler.TICK_SWEEP, t);
+
+        if (levelManager.isLevelCompleted()) {
+            isLevelTransition = true;
+            transitionTicks = 0;
+            events.levelCompleted(levelManager.getCurrentLevel());
+        }
+    }
+
+    private void updateBackground() {
+        scroll += scrollSpeed;
+        backgroundY += scrollSpeed;
+        if (backgroundY >= height) {
+            backgroundY = 0;
+        }
+    }
+
+    private void spawnEnemy() {
+        int baseSpeed = levelManager.getEnemySpeed();
+        int type = random.nextInt(3); // 0: basic, 1: fast, 2: tank
+        Enemy.spawn(store.enemies,
+                random.nextInt(width - 50),
+                -50,
+                baseSpeed,
+                type);
+    }
+
+    void handleCollisions() {
+        EntityTable enemies = store.enemies;
+        EntityTable projectiles = store.projectiles;
+        if (CHECK_COLLISIONS) {
+            crossCheckBroadphase();
+        }
+
+        // Projectile-enemy collisions
+        buildProjectileGrid();
+        for (int i = 0; i < enemies.size; i++) {
+            int candidates = projectileGrid.query(enemies.x[i], enemies.y[i], enemies.width[i], enemies.height[i]);
+            for (int c = 0; c < candidates && enemies.health[i] > 0; c++) {
+                int p = projectileGrid.result(c);
+                if (projectiles.health[p] > 0 && overlaps(projectiles, p, enemies, i) && masksOverlap(p, i)) {
+                    enemies.health[i]--;
+                    projectiles.health[p] = 0;
+
+                    if (enemies.health[i] <= 0) {
+                        score += Enemy.scoreFor(enemies.type[i]);
+                        levelManager.enemyDefeated();
+                        events.enemyDestroyed(enemies.type[i]);
+                    } else {
+                        events.enemyHit(enemies.type[i]);
+                    }
+                }
+            }
+        }
+
+        // Player-enemy collisions
+        buildEnemyGrid();
+        int candidates = enemyGrid.query(player.getX(), player.getY(), Player.WIDTH, Player.HEIGHT);
+        for (int c = 0; c < candidates; c++) {
+            int i = enemyGrid.result(c);
+            if (enemies.health[i] > 0 && overlaps(enemies, i, player) && masksOverlap(i, player)) {
+                enemies.health[i] = 0;
+                player.takeDamage();
+                events.playerHit();
+                if (player.getHealth() <= 0) {
+                    gameOver = true;
+                    events.gameOver(score, levelManager.getCurrentLevel());
+                }
+            }
+        }
+    }
+
+    private void buildProjectileGrid() {
+        EntityTable projectiles = store.projectiles;
+        projectileGrid.reset(width, height);
+        for (int i = 0; i < projectiles.size; i++) {
+            if (projectiles.health[i] > 0) {
+                projectileGrid.insert(i, projectiles.x[i], projectiles.y[i]);
+            }
+        }
+    }
+
+    private void buildEnemyGrid() {
+        EntityTable enemies = store.enemies;
+        enemyGrid.reset(width, height);
+        for (int i = 0; i < enemies.size; i++) {
+            if (enemies.health[i] > 0) {
+                enemyGrid.insert(i, enemies.x[i], enemies.y[i]);
+            }
+        }
+    }
+
+    private static boolean overlaps(EntityTable a, int i, EntityTable b, int j) {
+        return SpatialGrid.overlaps(a.x[i], a.y[i], a.width[i], a.height[i],
+                b.x[j], b.y[j], b.width[j], b.height[j]);
+    }
+
+    private static boolean overlaps(EntityTable a, int i, Player player) {
+        return SpatialGrid.overlaps(a.x[i], a.y[i], a.width[i], a.height[i],
+                player.getX(), player.getY(), Player.WIDTH, Player.HEIGHT);
+    }
+
+    // Narrowphase, once the boxes overlap: do the sprites' solid pixels touch?
+    private boolean masksOverlap(int projectile, int enemy) {
+        EntityTable projectiles = store.projectiles;
+        EntityTable enemies = store.enemies;
+        return !pixelCollisions || CollisionMask.overlaps(Projectile.MASK, projectiles.x[projectile], projectiles.y[projectile],
+                masks.enemy(enemies.type[enemy]), enemies.x[enemy], enemies.y[enemy]);
+    }
+
+    private boolean masksOverlap(int enemy, Player player) {
+        EntityTable enemies = store.enemies;
+        return !pixelCollisions || CollisionMask.overlaps(masks.enemy(enemies.type[enemy]), enemies.x[enemy], enemies.y[enemy],
+                player.getMask(), player.getX(), player.getY());
+    }
+
+    // Benchmarks only: ends any level transition and restarts the kill count, so the next tick simulates
+    void resumePlay() {
+        isLevelTransition = false;
+        transitionTicks = 0;
+        levelManager.reset();
+    }
+
+    // -Djetgame.collisionCheck=true: compare the grid's pairs against the old all-pairs test every tick
+    private void crossCheckBroadphase() {
+        EntityTable enemies = store.enemies;
+        EntityTable projectiles = store.projectiles;
+
+        buildProjectileGrid();
+        for (int i = 0; i < enemies.size; i++) {
+            if (enemies.health[i] <= 0) {
+                continue;
+            }
+            int candidates = projectileGrid.query(enemies.x[i], enemies.y[i], enemies.width[i], enemies.height[i]);
+            int c = 0;
+            for (int j = 0; j < projectiles.size; j++) {
+                if (projectiles.health[j] <= 0 || !overlaps(projectiles, j, enemies, i)) {
+                    continue;
+                }
+                while (c < candidates && projectileGrid.result(c) < j) {
+                    c++;
+                }
+                if (c == candidates || projectileGrid.result(c) != j) {
+                    System.err.println("Broadphase missed projectile " + j + " vs enemy " + i);
+                }
+            }
+        }
+
+        buildEnemyGrid();
+        int candidates = enemyGrid.query(player.getX(), player.getY(), Player.WIDTH, Player.HEIGHT);
+        int c = 0;
+        for (int i = 0; i < enemies.size; i++) {
+            if (enemies.health[i] <= 0 || !overlaps(enemies, i, player)) {
+                continue;
+            }
+            while (c < candidates && enemyGrid.result(c) < i) {
+                c++;
+            }
+            if (c == candidates || enemyGrid.result(c) != i) {
+                System.err.println("Broadphase missed enemy " + i + " vs player");
+            }
+        }
+    }
+
+    public void capture(WorldSnapshot snapshot) {
+        snapshot.capture(tickCount, store, player, prevScroll, scroll, score,
+                levelManager, isLevelTransition, gameOver);
+    }
+
+    // Fingerprint of everything that affects the rest of the game, for replay verification
+    public long stateHash() {
+        long h = seed;
+        h = h * 31 + tickCount;
+        h = h * 31 + score;
+        h = h * 31 + spawnTimer;
+        h = h * 31 + backgroundY;
+        h = h * 31 + scrollSpeed;
+        h = h * 31 + transitionTicks;
+        h = h * 31 + (isLevelTransition ? 1 : 0);
+        h = h * 31 + (gameOver ? 1 : 0);
+        h = h * 31 + levelManager.getCurrentLevel();
+        h = h * 31 + levelManager.getEnemiesDefeated();
+        h = h * 31 + player.getX();
+        h = h * 31 + player.getY();
+        h = h * 31 + player.getHealth();
+        h = h * 31 + (player.isInvincible() ? 1 : 0);
+        h = hashTable(h, store.enemies);
+        h = hashTable(h, store.projectiles);
+        return h;
+    }
+
+    private static long hashTable(long h, EntityTable table) {
+        h = h * 31 + table.size;
+        for (int i = 0; i < table.size; i++) {
+            h = h * 31 + table.x[i];
+            h = h * 31 + table.y[i];
+            h = h * 31 + table.health[i];
+            h = h * 31 + table.type[i];
+        }
+        return h;
+    }
+
+    public long getSeed() { return seed; }
+    public EntityStore getStore() { return store; }
+    public Player getPlayer() { return player; }
+    public LevelManager getLevelManager() { return levelManager; }
+    public int getScore() { return score; }
+    public boolean isGameOver() { return gameOver; }
+    public boolean isLevelTransition() { return isLevelTransition; }
+    public long getTickCount() { return tickCount; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+}
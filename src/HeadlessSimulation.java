@@ -0,0 +1,67 @@
+// HeadlessSimulation.java
+import java.io.IOException;
+import java.nio.file.Paths;
+
+// Steps a GameWorld as fast as the CPU allows, with no window, sound or database.
+// java -Djava.awt.headless=true HeadlessSimulation [ticks] [difficulty] [shipType] [seed] [replay.jgr]
+public class HeadlessSimulation {
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int difficulty = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int shipType = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+
+        Autopilot pilot = new Autopilot();
+        ReplayRecorder recorder = new ReplayRecorder(pilot);
+        GameWorld world = new GameWorld(784, 561, difficulty, shipType, ResourceManager.getCollisionMasks(shipType),
+                recorder, GameEvents.NONE, seed);
+        pilot.world = world;
+
+        long start = System.nanoTime();
+        while (world.getTickCount() < ticks && !world.isGameOver()) {
+            world.tick();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%d ticks in %.1f ms (%.0f ticks/s)%n",
+                world.getTickCount(), elapsed / 1e6, world.getTickCount() / (elapsed / 1e9));
+        System.out.printf("score %d, level %d, %s%n", world.getScore(),
+                world.getLevelManager().getCurrentLevel(), world.isGameOver() ? "game over" : "alive");
+
+        if (args.length > 4) {
+            recorder.finish(world, difficulty, shipType).write(Paths.get(args[4]));
+        }
+    }
+
+    // Slides under the lowest enemy and keeps firing
+    static class Autopilot implements InputSource {
+        GameWorld world;
+        private boolean fire;
+
+        @Override
+        public int poll() {
+            EntityTable enemies = world.getStore().enemies;
+            Player player = world.getPlayer();
+            int target = -1;
+            for (int i = 0; i < enemies.size; i++) {
+                if (target < 0 || enemies.y[i] > enemies.y[target]) {
+                    target = i;
+                }
+            }
+
+            int actions = 0;
+            if (target >= 0) {
+                int enemyCenter = enemies.x[target] + enemies.width[target] / 2;
+                if (enemyCenter < player.getCenterX() - 4) {
+                    actions |= LEFT;
+                } else if (enemyCenter > player.getCenterX() + 4) {
+                    actions |= RIGHT;
+                }
+            }
+            // Alternate ticks so every press is a fresh edge
+            fire = !fire;
+            return fire ? actions | FIRE : actions;
+        }
+    }
+}
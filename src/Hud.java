@@ -0,0 +1,194 @@
+// Hud.java
+import java.awt.*;
+
+// The in-game HUD and overlays as retained widgets: each is redrawn into its image only when the
+// score, level, kill count, lives or leaderboard it shows has changed, and blitted otherwise.
+public class Hud {
+    private static final Font INFO_FONT = new Font("Arial", Font.BOLD, 16);
+    private static final Font LABEL_FONT = new Font("Arial", Font.PLAIN, 14);
+    private static final Font BANNER_FONT = new Font("Arial", Font.BOLD, 40);
+    private static final Font HINT_FONT = new Font("Arial", Font.PLAIN, 20);
+    private static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 24);
+    private static final Font SCORES_FONT = new Font("Arial", Font.PLAIN, 18);
+    private static final Color BOARD_FILL = new Color(0, 0, 0, 150);
+    private static final Color BOARD_BORDER = new Color(255, 255, 255, 100);
+    private static final Color TRANSITION_DIM = new Color(0, 0, 0, 180);
+    private static final Color GAME_OVER_DIM = new Color(0, 0, 0, 200);
+    private static final Stroke BOARD_STROKE = new BasicStroke(2);
+
+    private final String difficultyName;
+    private final InfoBoard infoBoard;
+    private final Lives lives;
+    // Full-view overlays, made when first shown and remade if the view is resized
+    private LevelBanner levelBanner;
+    private GameOver gameOver;
+
+    public Hud(String playerName, String difficultyName, Sprite lifeIcon) {
+        this.difficultyName = difficultyName;
+        this.infoBoard = new InfoBoard(playerName);
+        this.lives = new Lives(difficultyName, lifeIcon);
+    }
+
+    public void draw(Graphics2D g, WorldSnapshot s, int width, int height) {
+        infoBoard.set(s.score, s.level, s.enemiesDefeated, s.enemiesToNextLevel);
+        infoBoard.draw(g, width - 212, 8);
+        lives.set(s.playerHealth);
+        lives.draw(g, 20, height - 90);
+
+        if (s.levelTransition) {
+            if (levelBanner == null || levelBanner.getWidth() != width || levelBanner.getHeight() != height) {
+                levelBanner = new LevelBanner(width, height);
+            }
+            levelBanner.set(s.level + 1);
+            levelBanner.draw(g, 0, 0);
+        }
+
+        if (s.gameOver) {
+            if (gameOver == null || gameOver.getWidth() != width || gameOver.getHeight() != height) {
+                gameOver = new GameOver(width, height, difficultyName);
+            }
+            // From memory, never the database; a refreshed board is a new object
+            gameOver.set(s.score, DatabaseManager.getLeaderboard(difficultyName));
+            gameOver.draw(g, 0, 0);
+        }
+    }
+
+    // Player, score, level and kill count in the top right corner
+    private static final class InfoBoard extends HudWidget {
+        private final String playerLine;
+        private int score = -1;
+        private int level = -1;
+        private int defeated = -1;
+        private int toNextLevel = -1;
+
+        InfoBoard(String playerName) {
+            super(204, 104); // 200 x 100 plus the border stroke
+            this.playerLine = "Player: " + playerName;
+        }
+
+        void set(int score, int level, int defeated, int toNextLevel) {
+            if (score != this.score || level != this.level || defeated != this.defeated
+                    || toNextLevel != this.toNextLevel) {
+                this.score = score;
+                this.level = level;
+                this.defeated = defeated;
+                this.toNextLevel = toNextLevel;
+                invalidate();
+            }
+        }
+
+        @Override
+        protected void paint(Graphics2D g) {
+            g.setColor(BOARD_FILL);
+            g.fillRoundRect(2, 2, 200, 100, 15, 15);
+            g.setColor(BOARD_BORDER);
+            g.setStroke(BOARD_STROKE);
+            g.drawRoundRect(2, 2, 200, 100, 15, 15);
+
+            g.setColor(Color.WHITE);
+            g.setFont(INFO_FONT);
+            g.drawString(playerLine, 12, 27);
+            g.drawString("Score: " + score, 12, 52);
+            g.drawString("Level: " + level, 12, 77);
+            g.drawString("Enemies: " + defeated + "/" + toNextLevel, 12, 102);
+        }
+    }
+
+    // Difficulty label with a ship icon per remaining life, bottom left
+    private static final class Lives extends HudWidget {
+        private final String label;
+        private final Sprite icon;
+        private int count = -1;
+
+        Lives(String difficultyName, Sprite icon) {
+            super(240, 76);
+            this.label = "Difficulty: " + difficultyName;
+            this.icon = icon;
+        }
+
+        void set(int count) {
+            if (count != this.count) {
+                this.count = count;
+                invalidate();
+            }
+        }
+
+        @Override
+        protected void paint(Graphics2D g) {
+            g.setColor(Color.WHITE);
+            g.setFont(LABEL_FONT);
+            g.drawString(label, 0, 20);
+            for (int i = 0; i < count; i++) {
+                icon.draw(g, i * 35, 40);
+            }
+        }
+    }
+
+    private static final class LevelBanner extends HudWidget {
+        private int level = -1;
+
+        LevelBanner(int width, int height) {
+            super(width, height);
+        }
+
+        void set(int level) {
+            if (level != this.level) {
+                this.level = level;
+                invalidate();
+            }
+        }
+
+        @Override
+        protected void paint(Graphics2D g) {
+            g.setColor(TRANSITION_DIM);
+            g.fillRect(0, 0, getWidth(), getHeight());
+            g.setColor(Color.YELLOW);
+            g.setFont(BANNER_FONT);
+            String message = "LEVEL " + level + "!";
+            g.drawString(message, getWidth() / 2 - g.getFontMetrics().stringWidth(message) / 2, getHeight() / 2);
+        }
+    }
+
+    private static final class GameOver extends HudWidget {
+        private final String topScoresTitle;
+        private int score = -1;
+        private LeaderboardCache.Board highscores;
+
+        GameOver(int width, int height, String difficultyName) {
+            super(width, height);
+            this.topScoresTitle = "Top Scores (" + difficultyName + "):";
+        }
+
+        void set(int score, LeaderboardCache.Board highscores) {
+            if (score != this.score || highscores != this.highscores) {
+                this.score = score;
+                this.highscores = highscores;
+                invalidate();
+            }
+        }
+
+        @Override
+        protected void paint(Graphics2D g) {
+            int width = getWidth();
+            int height = getHeight();
+            g.setColor(GAME_OVER_DIM);
+            g.fillRect(0, 0, width, height);
+
+            g.setColor(Color.RED);
+            g.setFont(BANNER_FONT);
+            String message = "GAME OVER - Score: " + score;
+            g.drawString(message, width / 2 - g.getFontMetrics().stringWidth(message) / 2, height / 2);
+
+            g.setColor(Color.WHITE);
+            g.setFont(HINT_FONT);
+            g.drawString("Press R to return to menu", width / 2 - 100, height / 2 + 50);
+
+            g.setFont(TITLE_FONT);
+            g.drawString(topScoresTitle, 50, height / 2 + 100);
+            g.setFont(SCORES_FONT);
+            for (int i = 0; i < Math.min(5, highscores.size()); i++) {
+                g.drawString(highscores.line(i), 50, height / 2 + 130 + i * 25);
+            }
+        }
+    }
+}
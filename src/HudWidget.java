@@ -0,0 +1,46 @@
+// HudWidget.java
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// A piece of the HUD kept in a translucent image. Subclasses call invalidate() when a value they show
+// changes; until then every frame is one blit, with no text layout or allocation.
+public abstract class HudWidget {
+    private final int width;
+    private final int height;
+    private BufferedImage image;
+    private boolean dirty = true;
+    private int repaints = 0;
+
+    protected HudWidget(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    // Draw the widget's contents at (0, 0); the image has already been cleared
+    protected abstract void paint(Graphics2D g);
+
+    protected void invalidate() {
+        dirty = true;
+    }
+
+    public void draw(Graphics g, int x, int y) {
+        if (image == null) {
+            image = ResourceManager.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        if (dirty) {
+            Graphics2D g2d = image.createGraphics();
+            g2d.setComposite(AlphaComposite.Clear);
+            g2d.fillRect(0, 0, width, height);
+            g2d.setComposite(AlphaComposite.SrcOver);
+            paint(g2d);
+            g2d.dispose();
+            dirty = false;
+            repaints++;
+        }
+        g.drawImage(image, x, y, null);
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getRepaints() { return repaints; }
+}
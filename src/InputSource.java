@@ -0,0 +1,13 @@
+// InputSource.java
+// Where the simulation reads player input from, once per tick, as a bitmask of actions
+public interface InputSource {
+    int LEFT = 1;
+    int RIGHT = 1 << 1;
+    int UP = 1 << 2;
+    int DOWN = 1 << 3;
+    int FIRE = 1 << 4; // set on the tick a fire press arrives, not while held
+
+    InputSource NONE = () -> 0;
+
+    int poll();
+}
@@ -0,0 +1,89 @@
+// JdbcScoreStore.java
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// The MySQL game_results table, written through a ScoreWriter and a ConnectionPool
+public class JdbcScoreStore implements ScoreStore {
+    static {
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+        } catch (ClassNotFoundException e) {
+            System.err.println("MySQL Driver not found: " + e.getMessage());
+        }
+    }
+
+    private final ConnectionPool pool;
+    private final ScoreWriter writer;
+
+    public JdbcScoreStore(String url, String user, String password, ScoreWriter.Listener listener) {
+        // One warm connection is plenty for a menu and a score writer; 4 covers bursts
+        this.pool = new ConnectionPool(url, user, password, 1, 4, 5 * 60_000, 2_000);
+        this.writer = new ScoreWriter(pool, listener);
+    }
+
+    @Override
+    public void initialize() throws SQLException {
+        String sql = "CREATE TABLE IF NOT EXISTS game_results (" +
+                "id INT AUTO_INCREMENT PRIMARY KEY, " +
+                "player_name VARCHAR(50) NOT NULL, " +
+                "score INT NOT NULL, " +
+                "level INT NOT NULL, " +
+                "difficulty VARCHAR(20) NOT NULL, " +
+                "achieved_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                ")";
+
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    // Queues the result for the background writer
+    @Override
+    public boolean save(GameResult result) {
+        return writer.submit(result);
+    }
+
+    @Override
+    public List<GameResult> top(String difficulty, int limit) throws SQLException {
+        List<GameResult> results = new ArrayList<>();
+        String sql = "SELECT player_name, score, level, difficulty, achieved_on FROM game_results " +
+                (difficulty == null ? "" : "WHERE difficulty = ? ") +
+                "ORDER BY score DESC LIMIT ?";
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int param = 1;
+            if (difficulty != null) {
+                stmt.setString(param++, difficulty);
+            }
+            stmt.setInt(param, limit);
+            // The statement is cached by the pool, so close the result set ourselves
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp achievedOn = rs.getTimestamp("achieved_on");
+                    results.add(new GameResult(
+                            rs.getString("player_name"),
+                            rs.getInt("score"),
+                            rs.getInt("level"),
+                            rs.getString("difficulty"),
+                            achievedOn != null ? achievedOn.getTime() : 0));
+                }
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        writer.close();
+        pool.close();
+    }
+
+    @Override
+    public String toString() {
+        return "jdbc, " + writer.getPendingCount() + " pending, " + pool;
+    }
+}
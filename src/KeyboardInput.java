@@ -0,0 +1,106 @@
+// KeyboardInput.java
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Key input from the EDT for the simulation thread. The EDT appends each press (time, action) to a
+// single-producer/single-consumer ring and never waits; poll() drains it once per tick into that
+// tick's action bitmask. No locks, no boxing, nothing allocated. A key pressed and released between
+// two ticks still counts for the tick that drains it, and every fire press fires on exactly one tick.
+// Which keys are held is kept as a mask next to the ring, so a full ring can cost a tap but never
+// leaves a key stuck down.
+public class KeyboardInput extends KeyAdapter implements InputSource {
+    private static final int CAPACITY = 256; // power of two; far more than one tick's worth of keys
+
+    private final long[] times = new long[CAPACITY];
+    private final int[] actions = new int[CAPACITY];
+    // Only the EDT moves tail and only the simulation thread moves head; lazySet publishes the slots
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    // Written by the EDT only
+    private volatile int held = 0;
+    private volatile long dropped = 0;
+    // Simulation thread only: what the last poll() drained, for the latency probe
+    private int lastPresses = 0;
+    private long lastPressNanos = 0;
+
+    @Override
+    public void keyPressed(KeyEvent e) {
+        int action = action(e.getKeyCode());
+        if (action != 0) {
+            if (LatencyProbe.ENABLED) {
+                LatencyProbe.delivered(e.getWhen());
+            }
+            if (action != FIRE) {
+                held |= action; // fire is per press, never held
+            }
+            push(action);
+        }
+    }
+
+    @Override
+    public void keyReleased(KeyEvent e) {
+        int action = action(e.getKeyCode());
+        if (action != 0) {
+            held &= ~action;
+        }
+    }
+
+    private static int action(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.VK_LEFT: return LEFT;
+            case KeyEvent.VK_RIGHT: return RIGHT;
+            case KeyEvent.VK_UP: return UP;
+            case KeyEvent.VK_DOWN: return DOWN;
+            case KeyEvent.VK_SPACE: return FIRE;
+            default: return 0;
+        }
+    }
+
+    // EDT only
+    private void push(int action) {
+        long t = tail.get();
+        if (t - head.get() == CAPACITY) {
+            dropped++; // the simulation has stopped draining (paused or gone)
+            return;
+        }
+        int slot = (int) (t & (CAPACITY - 1));
+        times[slot] = System.nanoTime();
+        actions[slot] = action;
+        tail.lazySet(t + 1);
+    }
+
+    // Simulation thread only
+    @Override
+    public int poll() {
+        long h = head.get();
+        long t = tail.get();
+        int pressed = 0;
+        lastPressNanos = 0;
+        if (h != t) {
+            long now = System.nanoTime();
+            lastPressNanos = times[(int) (h & (CAPACITY - 1))];
+            for (; h < t; h++) {
+                int slot = (int) (h & (CAPACITY - 1));
+                pressed |= actions[slot];
+                FrameProfiler.record(FrameProfiler.INPUT_LAG, now - times[slot]);
+            }
+            head.lazySet(t);
+        }
+        lastPresses = pressed;
+        return held | pressed;
+    }
+
+    // Actions pressed since the poll before the last one, and when the earliest of them arrived (0 if none)
+    public int getLastPresses() {
+        return lastPresses;
+    }
+
+    public long getLastPressNanos() {
+        return lastPressNanos;
+    }
+
+    public long getDroppedCount() {
+        return dropped;
+    }
+}
@@ -0,0 +1,103 @@
+// LatencyProbe.java
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Input-to-photon latency, on with -Djetgame.latencyProbe=true. A key press is followed from the EDT
+// through the tick that applies it (only presses that moved the ship or fired a shot count), the first
+// frame drawn from that tick or a later one, and the flip that puts that frame on screen. One press is
+// in flight at a time; presses arriving meanwhile are not followed. Each stage keeps a rolling
+// distribution, printed when the game is left and shown in the F3 overlay.
+public final class LatencyProbe {
+    static final boolean ENABLED = Boolean.getBoolean("jetgame.latencyProbe");
+
+    static final int DELIVERY = 0; // OS timestamp to the EDT; millisecond resolution
+    static final int QUEUE = 1;    // EDT to the tick that applied the press
+    static final int DRAW = 2;     // that tick to the end of the first frame showing it
+    static final int PRESENT = 3;  // frame drawn to buffer shown (active rendering: show() + sync())
+    static final int TOTAL = 4;    // EDT to buffer shown
+    static final int STAGES = 5;
+    static final String[] NAMES = { "os > edt", "edt > tick", "tick > drawn", "drawn > shown", "edt > shown" };
+
+    private static final FrameProfiler.RollingHistogram[] histograms = new FrameProfiler.RollingHistogram[STAGES];
+
+    static {
+        for (int i = 0; i < STAGES; i++) {
+            histograms[i] = new FrameProfiler.RollingHistogram();
+        }
+    }
+
+    // Tick whose effect is awaited, 0 when nothing is in flight. Set by the simulation thread once the
+    // two times below are written, cleared by the render thread once the frame is shown.
+    private static final AtomicLong pendingTick = new AtomicLong();
+    private static long pressNanos;
+    private static long tickNanos;
+    // Render thread only
+    private static long drawnNanos;
+    private static long followed;
+
+    private LatencyProbe() {
+    }
+
+    // EDT, as the key event arrives
+    static void delivered(long whenMillis) {
+        histograms[DELIVERY].record(Math.max(0, System.currentTimeMillis() - whenMillis) * 1_000_000L);
+    }
+
+    // Simulation thread, after a tick in which a press taken at pressNanos had a visible effect
+    static void ticked(long pressNanos, long tick) {
+        if (pendingTick.get() != 0) {
+            return;
+        }
+        LatencyProbe.pressNanos = pressNanos;
+        LatencyProbe.tickNanos = System.nanoTime();
+        pendingTick.set(tick);
+    }
+
+    // Render thread, once a snapshot has been drawn
+    static void drawn(long snapshotTick) {
+        long pending = pendingTick.get();
+        if (pending != 0 && drawnNanos == 0 && snapshotTick >= pending) {
+            drawnNanos = System.nanoTime();
+        }
+    }
+
+    // Render thread, once the frame is on its way to the screen
+    static void presented() {
+        if (drawnNanos == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        histograms[QUEUE].record(tickNanos - pressNanos);
+        histograms[DRAW].record(drawnNanos - tickNanos);
+        histograms[PRESENT].record(now - drawnNanos);
+        histograms[TOTAL].record(now - pressNanos);
+        followed++;
+        drawnNanos = 0;
+        pendingTick.set(0);
+    }
+
+    // Before a new game's loop starts; its tick count begins again at zero
+    static void reset() {
+        drawnNanos = 0;
+        pendingTick.set(0);
+    }
+
+    static FrameProfiler.RollingHistogram histogram(int stage) {
+        return histograms[stage];
+    }
+
+    static void printReport() {
+        if (followed == 0) {
+            return;
+        }
+        long[] scratch = new long[FrameProfiler.WINDOW];
+        System.out.println("Input latency over the last " + Math.min(followed, scratch.length) + " presses (ms):");
+        for (int stage = 0; stage < STAGES; stage++) {
+            int n = histograms[stage].sortedSnapshot(scratch);
+            System.out.printf(Locale.ROOT, "  %-14s p50 %7.2f  p99 %7.2f  max %7.2f%n", NAMES[stage],
+                    FrameProfiler.RollingHistogram.percentile(scratch, n, 0.50) / 1e6,
+                    FrameProfiler.RollingHistogram.percentile(scratch, n, 0.99) / 1e6,
+                    FrameProfiler.RollingHistogram.percentile(scratch, n, 1.0) / 1e6);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+// LeaderboardCache.java
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Top-K scores kept in memory, overall and per difficulty. Loaded in the background, patched with
+// every result the ScoreWriter commits, and reloaded after a TTL to pick up other players' scores.
+// Reads never touch the database, so the game-over overlay can call top() every frame.
+public class LeaderboardCache {
+    public interface Loader {
+        // The best `limit` results, for one difficulty or for all of them when difficulty is null
+        List<GameResult> load(String difficulty, int limit) throws Exception;
+    }
+
+    public static final String OVERALL = "";
+    private static final String[] DIFFICULTIES = { "Easy", "Normal", "Hard", "Custom" };
+    // MySQL keeps whole seconds, so a saved result can come back up to a second off
+    private static final long SAME_RESULT_MS = 1000;
+
+    private final Loader loader;
+    private final int capacity;
+    private final long ttlMs;
+    private final Map<String, Board> boards = new ConcurrentHashMap<>();
+    private final Object loadLock = new Object();
+    private boolean loading = false;
+    private volatile boolean loaded = false;
+    private volatile long loadedAt = 0;
+    // Results saved while a load was running; the load may or may not have seen them
+    private List<GameResult> savedDuringLoad = null;
+
+    public LeaderboardCache(Loader loader, int capacity, long ttlMs) {
+        this.loader = loader;
+        this.capacity = capacity;
+        this.ttlMs = ttlMs;
+    }
+
+    // Never blocks. Returns an empty board until the first load has finished.
+    public Board top(String difficulty) {
+        if (System.currentTimeMillis() - loadedAt > ttlMs) {
+            refresh();
+        }
+        Board board = boards.get(difficulty == null ? OVERALL : difficulty);
+        return board != null ? board : Board.EMPTY;
+    }
+
+    // True once the first load has finished, whether or not the database answered
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Starts a background reload unless one is already running
+    public void refresh() {
+        synchronized (loadLock) {
+            if (loading) {
+                return;
+            }
+            loading = true;
+            savedDuringLoad = new ArrayList<>();
+        }
+        Thread thread = new Thread(this::load, "leaderboard-load");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void load() {
+        Map<String, Board> fresh = new ConcurrentHashMap<>();
+        boolean ok = true;
+        try {
+            fresh.put(OVERALL, Board.of(loader.load(null, capacity), capacity));
+            for (String difficulty : DIFFICULTIES) {
+                fresh.put(difficulty, Board.of(loader.load(difficulty, capacity), capacity));
+            }
+        } catch (Exception e) {
+            System.err.println("Error loading leaderboard: " + e.getMessage());
+            ok = false;
+        }
+
+        synchronized (loadLock) {
+            List<GameResult> missed = savedDuringLoad;
+            savedDuringLoad = null;
+            loading = false;
+            // Try again after the TTL either way, so a database that was down gets picked up later
+            loadedAt = System.currentTimeMillis();
+            loaded = true;
+            if (!ok) {
+                return;
+            }
+            for (GameResult result : missed) {
+                apply(fresh, result);
+            }
+            boards.putAll(fresh);
+        }
+    }
+
+    // ScoreWriter callback: called with each batch once it has been committed
+    public void onSaved(List<GameResult> results) {
+        synchronized (loadLock) {
+            for (GameResult result : results) {
+                apply(boards, result);
+                if (savedDuringLoad != null) {
+                    savedDuringLoad.add(result);
+                }
+            }
+        }
+    }
+
+    private void apply(Map<String, Board> target, GameResult result) {
+        update(target, OVERALL, result);
+        update(target, result.getDifficulty(), result);
+    }
+
+    private void update(Map<String, Board> target, String key, GameResult result) {
+        Board board = target.getOrDefault(key, Board.EMPTY);
+        Board updated = board.with(result, capacity);
+        if (updated != board) {
+            target.put(key, updated);
+        }
+    }
+
+    // An immutable top-K list sorted by score, highest first, in parallel arrays.
+    // Updates build a new Board, so readers on other threads never see a half-written one.
+    public static final class Board {
+        static final Board EMPTY = new Board(0, 0);
+
+        private final int size;
+        private final int[] scores;
+        private final int[] levels;
+        private final long[] achievedOn;
+        private final String[] names;
+        private final String[] difficulties;
+        private final String[] lines;
+
+        private Board(int capacity, int size) {
+            this.size = size;
+            this.scores = new int[capacity];
+            this.levels = new int[capacity];
+            this.achievedOn = new long[capacity];
+            this.names = new String[capacity];
+            this.difficulties = new String[capacity];
+            this.lines = new String[capacity];
+        }
+
+        static Board of(List<GameResult> results, int capacity) {
+            Board board = EMPTY;
+            for (GameResult result : results) {
+                board = board.with(result, capacity);
+            }
+            return board;
+        }
+
+        // Returns this board unchanged if the result doesn't make the cut or is already listed
+        Board with(GameResult result, int capacity) {
+            int score = result.getScore();
+            // Equal scores keep their order: the newcomer goes after them
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (scores[mid] >= score) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            if (lo >= capacity) {
+                return this;
+            }
+            for (int i = lo - 1; i >= 0 && scores[i] == score; i--) {
+                if (isSame(i, result)) {
+                    return this;
+                }
+            }
+
+            int newSize = Math.min(size + 1, capacity);
+            Board next = new Board(capacity, newSize);
+            copy(this, 0, next, 0, lo);
+            copy(this, lo, next, lo + 1, newSize - lo - 1);
+            next.scores[lo] = score;
+            next.levels[lo] = result.getLevel();
+            next.achievedOn[lo] = result.getAchievedOn();
+            next.names[lo] = result.getPlayerName();
+            next.difficulties[lo] = result.getDifficulty();
+            next.lines[lo] = format(result);
+            return next;
+        }
+
+        private boolean isSame(int i, GameResult result) {
+            return levels[i] == result.getLevel()
+                    && Math.abs(achievedOn[i] - result.getAchievedOn()) < SAME_RESULT_MS
+                    && names[i].equals(result.getPlayerName())
+                    && difficulties[i].equals(result.getDifficulty());
+        }
+
+        private static void copy(Board from, int fromIndex, Board to, int toIndex, int count) {
+            if (count <= 0) {
+                return;
+            }
+            System.arraycopy(from.scores, fromIndex, to.scores, toIndex, count);
+            System.arraycopy(from.levels, fromIndex, to.levels, toIndex, count);
+            System.arraycopy(from.achievedOn, fromIndex, to.achievedOn, toIndex, count);
+            System.arraycopy(from.names, fromIndex, to.names, toIndex, count);
+            System.arraycopy(from.difficulties, fromIndex, to.difficulties, toIndex, count);
+            System.arraycopy(from.lines, fromIndex, to.lines, toIndex, count);
+        }
+
+        // Same text the old getHighScores query produced
+        private static String format(GameResult result) {
+            String date = new SimpleDateFormat("dd/MM/yyyy HH:mm").format(new Date(result.getAchievedOn()));
+            return String.format("%s - %d pts (Niv.%d %s) le %s", result.getPlayerName(), result.getScore(),
+                    result.getLevel(), result.getDifficulty(), date);
+        }
+
+        public int size() { return size; }
+        public int score(int i) { return scores[i]; }
+        public int level(int i) { return levels[i]; }
+        public String playerName(int i) { return names[i]; }
+        public String difficulty(int i) { return difficulties[i]; }
+        public long achievedOn(int i) { return achievedOn[i]; }
+        // Pre-formatted display line, so drawing the board allocates nothing
+        public String line(int i) { return lines[i]; }
+    }
+}
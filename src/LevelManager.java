@@ -52,6 +52,15 @@ public class LevelManager implements Serializable {
         return BASE_ENEMY_SPEED + (currentLevel / 2) + (difficulty / 2);
     }
 
+    public static String difficultyName(int difficulty) {
+        switch (difficulty) {
+            case 1: return "Easy";
+            case 3: return "Normal";
+            case 5: return "Hard";
+            default: return "Custom";
+        }
+    }
+
     public boolean isLevelCompleted() { return levelCompleted; }
     public int getCurrentLevel() { return currentLevel; }
     public int getEnemiesDefeated() { return enemiesDefeated; }
@@ -0,0 +1,55 @@
+// LoadingPanel.java
+import javax.swing.*;
+import java.awt.*;
+
+// Shown while the menu's assets are decoding
+public class LoadingPanel extends JPanel implements AssetLoader.Listener {
+    private final JProgressBar progressBar = new JProgressBar();
+    private final JLabel status = new JLabel(" ", SwingConstants.CENTER);
+
+    public LoadingPanel() {
+        setLayout(new GridBagLayout());
+        setBackground(new Color(30, 30, 50));
+
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(10, 10, 10, 10);
+        gbc.gridx = 0;
+        gbc.gridy = 0;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+
+        JLabel title = new JLabel("SPACE DEFENDER", SwingConstants.CENTER);
+        title.setFont(new Font("Arial", Font.BOLD, 48));
+        title.setForeground(new Color(255, 215, 0));
+        add(title, gbc);
+
+        gbc.gridy++;
+        progressBar.setPreferredSize(new Dimension(400, 20));
+        progressBar.setStringPainted(true);
+        progressBar.setForeground(new Color(70, 130, 180));
+        add(progressBar, gbc);
+
+        gbc.gridy++;
+        status.setFont(new Font("Arial", Font.PLAIN, 14));
+        status.setForeground(Color.LIGHT_GRAY);
+        add(status, gbc);
+    }
+
+    // Called from loader threads
+    @Override
+    public void progress(int done, int total, String asset) {
+        SwingUtilities.invokeLater(() -> {
+            progressBar.setMaximum(Math.max(1, total));
+            progressBar.setValue(done);
+            progressBar.setString(done + " / " + total);
+            if (asset != null) {
+                status.setText("Loaded " + asset);
+            }
+        });
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        StartupMetrics.frameShown("loading");
+    }
+}
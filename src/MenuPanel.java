@@ -5,8 +5,13 @@ import java.awt.event.*;
 import javax.sound.sampled.Clip;
 
 public class MenuPanel extends JPanel {
+    // Pixels per second for the nearest star layer; the game scrolls at 120 and up
+    private static final double STAR_SPEED = 30;
     private final GameWindow parent;
     private Clip menuMusic;
+    private final Starfield starfield = Starfield.shared();
+    private final Timer starTimer = new Timer(1000 / GameLoop.TICKS_PER_SECOND, e -> repaint());
+    private final long shownAt = System.nanoTime();
 
     public MenuPanel(GameWindow parent) {
         this.parent = parent;
@@ -217,23 +222,25 @@ public class MenuPanel extends JPanel {
         parent.showSettings();
     }
 
+    // Stars only move while the menu is on screen
     @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        drawStarBackground(g);
+    public void addNotify() {
+        super.addNotify();
+        starTimer.start();
     }
 
-    private void drawStarBackground(Graphics g) {
-        Graphics2D g2d = (Graphics2D) g;
-        g2d.setColor(Color.BLACK);
-        g2d.fillRect(0, 0, getWidth(), getHeight());
+    @Override
+    public void removeNotify() {
+        starTimer.stop();
+        super.removeNotify();
+    }
 
-        g2d.setColor(Color.WHITE);
-        for (int i = 0; i < 100; i++) {
-            int x = (int)(Math.random() * getWidth());
-            int y = (int)(Math.random() * getHeight());
-            int size = 1 + (int)(Math.random() * 2);
-            g2d.fillOval(x, y, size, size);
-        }
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        // Scroll from elapsed time, so timer jitter doesn't make the stars stutter
+        double scroll = (System.nanoTime() - shownAt) / 1e9 * STAR_SPEED;
+        starfield.draw(g, scroll, getWidth(), getHeight());
+        StartupMetrics.frameShown("menu");
     }
 }
\ No newline at end of file
@@ -0,0 +1,290 @@
+// MusicStreamer.java
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+// Music for AudioMixer, streamed instead of loaded whole. Each track (a "deck") has a producer thread
+// that decodes the file in chunks into a half-second ring buffer; the mixer thread drains it. At the
+// end of the file the producer reopens it and keeps writing, so loops have no gap. Changing tracks
+// fades the old deck out while the new one fades in, and volume changes are ramped per sample.
+public class MusicStreamer {
+    private static final int RING_FRAMES = AudioMixer.SAMPLE_RATE / 2;
+    private static final int CHUNK_FRAMES = 4096;
+    // Volume changes glide over 50 ms instead of jumping, which would click
+    private static final int VOLUME_RAMP_FRAMES = AudioMixer.SAMPLE_RATE / 20;
+
+    // Swapped as a pair so the mixer never sees a half-made change
+    private static final class Decks {
+        final Deck current;
+        final Deck previous;
+
+        Decks(Deck current, Deck previous) {
+            this.current = current;
+            this.previous = previous;
+        }
+    }
+
+    private volatile Decks decks = new Decks(null, null);
+    private volatile float volume;
+    private float appliedVolume; // mixer thread only
+    private volatile long underruns = 0;
+
+    public MusicStreamer(float volume) {
+        this.volume = volume;
+        this.appliedVolume = volume;
+    }
+
+    // Starts `filename` looping, crossfading from whatever was playing. No-op if it is already playing.
+    public synchronized void play(String filename, int crossfadeMs) {
+        Decks old = decks;
+        if (old.current != null && old.current.filename.equals(filename) && !old.current.stopped) {
+            return;
+        }
+        if (old.previous != null) {
+            old.previous.stop(); // a third track cuts short a crossfade still in progress
+        }
+        int fadeFrames = Math.max(1, crossfadeMs * AudioMixer.SAMPLE_RATE / 1000);
+        Deck next = new Deck(filename);
+        next.fadeTo(1f, fadeFrames);
+        if (old.current != null) {
+            old.current.fadeTo(0f, fadeFrames);
+        }
+        decks = new Decks(next, old.current);
+        next.start();
+    }
+
+    public synchronized void stop(int fadeMs) {
+        Decks old = decks;
+        if (old.previous != null) {
+            old.previous.stop();
+        }
+        if (old.current != null) {
+            old.current.fadeTo(0f, Math.max(1, fadeMs * AudioMixer.SAMPLE_RATE / 1000));
+        }
+        decks = new Decks(null, old.current);
+    }
+
+    public void setVolume(float volume) {
+        this.volume = volume;
+    }
+
+    public long getUnderruns() {
+        return underruns;
+    }
+
+    // Mixer thread: adds `frames` frames of music to the mix
+    void mixInto(int[] mix, int frames) {
+        Decks d = decks;
+        float start = appliedVolume;
+        float target = volume;
+        float step = (target - start) / VOLUME_RAMP_FRAMES;
+        if (Math.abs(target - start) <= Math.abs(step * frames)) {
+            step = (target - start) / frames;
+        }
+        if (d.current != null) {
+            d.current.mixInto(mix, frames, start, step);
+        }
+        if (d.previous != null) {
+            d.previous.mixInto(mix, frames, start, step);
+        }
+        appliedVolume = start + step * frames;
+    }
+
+    private final class Deck implements Runnable {
+        final String filename;
+        final short[] ring = new short[RING_FRAMES * AudioMixer.CHANNELS];
+        // Frame counters; only the producer moves written, only the mixer moves read
+        volatile long written = 0;
+        volatile long read = 0;
+        volatile boolean finished = false;
+        volatile boolean stopped = false;
+
+        // Fade requests from other threads, picked up by the mixer
+        volatile float fadeTarget = 0f;
+        volatile int fadeFrames = 1;
+        volatile int fadeRequest = 0;
+        private int fadeApplied = 0;
+        private float gain = 0f;
+        private float gainStep = 0f;
+
+        Deck(String filename) {
+            this.filename = filename;
+        }
+
+        void start() {
+            Thread thread = new Thread(this, "music-streamer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void stop() {
+            stopped = true;
+        }
+
+        void fadeTo(float target, int frames) {
+            fadeTarget = target;
+            fadeFrames = frames;
+            fadeRequest++;
+        }
+
+        @Override
+        public void run() {
+            StreamResampler resampler = new StreamResampler();
+            short[] out = new short[0];
+            try {
+                while (!stopped) {
+                    try (AudioInputStream in = ResourceManager.openAudioStream(filename)) {
+                        int channels = in.getFormat().getChannels();
+                        byte[] bytes = new byte[CHUNK_FRAMES * channels * 2];
+                        short[] chunk = new short[CHUNK_FRAMES * channels];
+                        resampler.setSource(channels, in.getFormat().getSampleRate());
+                        int n;
+                        while (!stopped && (n = readFully(in, bytes)) > 0) {
+                            int samples = n / 2;
+                            for (int i = 0; i < samples; i++) {
+                                chunk[i] = (short) ((bytes[2 * i] & 0xFF) | (bytes[2 * i + 1] << 8));
+                            }
+                            out = resampler.process(chunk, samples / channels, out);
+                            write(out, resampler.outputFrames());
+                        }
+                    }
+                    // End of file: go round again straight away; the ring covers the reopen
+                }
+            } catch (Exception e) {
+                System.err.println("Could not stream music: " + filename + " (" + e.getMessage() + ")");
+            } finally {
+                finished = true;
+            }
+        }
+
+        private int readFully(AudioInputStream in, byte[] bytes) throws IOException {
+            int total = 0;
+            int n;
+            while (total < bytes.length && (n = in.read(bytes, total, bytes.length - total)) > 0) {
+                total += n;
+            }
+            // Whole frames only
+            int frameBytes = in.getFormat().getChannels() * 2;
+            return total - total % frameBytes;
+        }
+
+        // Producer: blocks (parks) while the ring is full
+        private void write(short[] samples, int frames) {
+            int done = 0;
+            while (done < frames && !stopped) {
+                int space = (int) (RING_FRAMES - (written - read));
+                if (space == 0) {
+                    LockSupport.parkNanos(2_000_000L);
+                    continue;
+                }
+                int n = Math.min(space, frames - done);
+                for (int f = 0; f < n; f++) {
+                    int slot = (int) ((written + f) % RING_FRAMES) * AudioMixer.CHANNELS;
+                    ring[slot] = samples[(done + f) * AudioMixer.CHANNELS];
+                    ring[slot + 1] = samples[(done + f) * AudioMixer.CHANNELS + 1];
+                }
+                written += n;
+                done += n;
+            }
+        }
+
+        // Mixer thread
+        void mixInto(int[] mix, int frames, float volume, float volumeStep) {
+            if (fadeRequest != fadeApplied) {
+                fadeApplied = fadeRequest;
+                gainStep = (fadeTarget - gain) / fadeFrames;
+            }
+            long available = written - read;
+            int n = (int) Math.min(frames, available);
+            // Not counted while the first chunk is still being decoded
+            if (n < frames && written > 0 && !finished && !stopped) {
+                underruns++;
+            }
+
+            long position = read;
+            for (int f = 0; f < n; f++) {
+                float g = gain * (volume + volumeStep * f);
+                int slot = (int) ((position + f) % RING_FRAMES) * AudioMixer.CHANNELS;
+                mix[f * 2] += (int) (ring[slot] * g);
+                mix[f * 2 + 1] += (int) (ring[slot + 1] * g);
+                if (gainStep != 0f) {
+                    gain += gainStep;
+                    if ((gainStep > 0 && gain >= fadeTarget) || (gainStep < 0 && gain <= fadeTarget)) {
+                        gain = fadeTarget;
+                        gainStep = 0f;
+                    }
+                }
+            }
+            read = position + n;
+
+            if (gain == 0f && gainStep == 0f && fadeTarget == 0f && fadeApplied > 0) {
+                stopped = true; // faded out: let the producer thread end
+            }
+        }
+    }
+
+    // Linear-interpolation resampler to the mixer's rate and channel count that carries its position
+    // (and the last input frame) across chunks, so chunk and loop boundaries don't click
+    private static final class StreamResampler {
+        private int channels = 1;
+        private double step = 1.0;
+        private double position = 0.0;
+        private short lastLeft;
+        private short lastRight;
+        private boolean hasLast = false;
+        private int outFrames = 0;
+
+        void setSource(int channels, float sampleRate) {
+            this.channels = channels;
+            this.step = sampleRate / AudioMixer.SAMPLE_RATE;
+        }
+
+        int outputFrames() {
+            return outFrames;
+        }
+
+        // Input frame i, where i = -1 is the last frame of the previous chunk
+        private short sample(short[] in, int frame, int channel) {
+            if (frame < 0) {
+                return channel == 0 ? lastLeft : lastRight;
+            }
+            return in[frame * channels + Math.min(channel, channels - 1)];
+        }
+
+        short[] process(short[] in, int frames, short[] out) {
+            if (frames == 0) {
+                outFrames = 0;
+                return out;
+            }
+            if (!hasLast) {
+                lastLeft = sample(in, 0, 0);
+                lastRight = sample(in, 0, 1);
+                hasLast = true;
+            }
+            int capacity = (int) ((frames + 1) / step) + 2;
+            if (out.length < capacity * AudioMixer.CHANNELS) {
+                out = new short[capacity * AudioMixer.CHANNELS];
+            }
+            // position is measured from the previous chunk's last frame (index -1)
+            int count = 0;
+            while (position < frames) {
+                int i = (int) position - 1;
+                double t = position - (i + 1);
+                for (int c = 0; c < AudioMixer.CHANNELS; c++) {
+                    double a = sample(in, i, c);
+                    double b = sample(in, i + 1, c);
+                    out[count * AudioMixer.CHANNELS + c] = (short) Math.round(a + (b - a) * t);
+                }
+                count++;
+                position += step;
+            }
+            position -= frames;
+            lastLeft = sample(in, frames - 1, 0);
+            lastRight = sample(in, frames - 1, 1);
+            outFrames = count;
+            return out;
+        }
+    }
+}
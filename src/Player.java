@@ -1,148 +1,162 @@
 // Player.java
 import java.awt.*;
-import java.awt.event.KeyEvent;
-import java.util.HashSet;
-import java.util.Set;
 
 public class Player {
+    public static final int WIDTH = 50;
+    public static final int HEIGHT = 60;
+
     private int x, y;
+    private int prevX, prevY;
     private int speed;
-    private final Image[] sprites = new Image[3];
     private int currentSprite = 0;
-    private final Set<Integer> activeKeys = new HashSet<>();
-    private long lastShotTime = 0;
-    private final long shotCooldown;
+    // Timers count simulation ticks (60 per second) so the world can run faster than real time
+    private int shotCooldownLeft = 0;
+    private final int shotCooldown;
     private final int shipType;
     private int health;
     private boolean invincible = false;
-    private long invincibleEndTime = 0;
+    private int invincibleTicksLeft = 0;
+    private final CollisionMask mask;
 
-    public Player(int startX, int startY, int shipType) {
+    public Player(int startX, int startY, int shipType, CollisionMask mask) {
         this.x = startX;
         this.y = startY;
+        this.prevX = startX;
+        this.prevY = startY;
         this.shipType = shipType;
         this.health = 3;
+        this.mask = mask;
 
         switch(shipType) {
             case 0: // Standard
-                sprites[0] = ResourceManager.getImage("/ship_0.png");
-                sprites[1] = ResourceManager.getImage("/ship_0.png");
-                sprites[2] = ResourceManager.getImage("/ship_0.png");
                 speed = 5;
-                shotCooldown = 300;
+                shotCooldown = 18; // 300 ms
                 break;
             case 1: // Fast
-                sprites[0] = ResourceManager.getImage("/ship_1.png");
-                sprites[1] = ResourceManager.getImage("/ship_1.png");
-                sprites[2] = ResourceManager.getImage("/ship_1.png");
                 speed = 7;
-                shotCooldown = 500;
+                shotCooldown = 30; // 500 ms
                 break;
             case 2: // Heavy
-                sprites[0] = ResourceManager.getImage("/ship_2.png");
-                sprites[1] = ResourceManager.getImage("/ship_2.png");
-                sprites[2] = ResourceManager.getImage("/ship_2.png");
                 speed = 3;
-                shotCooldown = 150;
+                shotCooldown = 9; // 150 ms
                 break;
             default:
-                sprites[0] = ResourceManager.getImage("/ship_0.png");
-                sprites[1] = ResourceManager.getImage("/ship_0.png");
-                sprites[2] = ResourceManager.getImage("/ship_0.png");
                 speed = 5;
-                shotCooldown = 300;
+                shotCooldown = 18;
         }
     }
 
-    public void handleKeyPress(int keyCode) {
-        activeKeys.add(keyCode);
-        updateSprite();
+    public static String imagePath(int shipType) {
+        return "/ship_" + (shipType >= 0 && shipType <= 2 ? shipType : 0) + ".png";
     }
 
-    public void handleKeyRelease(int keyCode) {
-        activeKeys.remove(keyCode);
-        updateSprite();
+    // Idle, banking right, banking left
+    public static Sprite[] loadSprites(int shipType) {
+        String path = imagePath(shipType);
+        Sprite[] sprites = new Sprite[3];
+        sprites[0] = ResourceManager.getSprite(path, WIDTH, HEIGHT);
+        sprites[1] = ResourceManager.getSprite(path, WIDTH, HEIGHT);
+        sprites[2] = ResourceManager.getSprite(path, WIDTH, HEIGHT);
+        return sprites;
     }
 
-    private void updateSprite() {
-        if (activeKeys.contains(KeyEvent.VK_LEFT)) {
+    public void update(int actions) {
+        prevX = x;
+        prevY = y;
+
+        if (shotCooldownLeft > 0) {
+            shotCooldownLeft--;
+        }
+        if (invincible && --invincibleTicksLeft <= 0) {
+            invincible = false;
+        }
+
+        if ((actions & InputSource.LEFT) != 0) {
             currentSprite = 2;
-        } else if (activeKeys.contains(KeyEvent.VK_RIGHT)) {
+        } else if ((actions & InputSource.RIGHT) != 0) {
             currentSprite = 1;
         } else {
             currentSprite = 0;
         }
-    }
 
-    public void update() {
-        if (invincible && System.currentTimeMillis() > invincibleEndTime) {
-            invincible = false;
+        if ((actions & InputSource.LEFT) != 0) {
+            x = Math.max(0, x - speed);
+        }
+        if ((actions & InputSource.RIGHT) != 0) {
+            x = Math.min(750, x + speed);
+        }
+        if ((actions & InputSource.UP) != 0) {
+            y = Math.max(0, y - speed);
+        }
+        if ((actions & InputSource.DOWN) != 0) {
+            y = Math.min(550, y + speed);
         }
+    }
 
-        activeKeys.forEach(key -> {
-            switch (key) {
-                case KeyEvent.VK_LEFT:
-                    x = Math.max(0, x - speed);
-                    break;
-                case KeyEvent.VK_RIGHT:
-                    x = Math.min(750, x + speed);
-                    break;
-                case KeyEvent.VK_UP:
-                    y = Math.max(0, y - speed);
-                    break;
-                case KeyEvent.VK_DOWN:
-                    y = Math.min(550, y + speed);
-                    break;
-            }
-        });
+    // Previous position = current, for ticks where the world is paused
+    public void settle() {
+        prevX = x;
+        prevY = y;
     }
 
     public boolean canShoot() {
-        return System.currentTimeMillis() - lastShotTime > shotCooldown;
+        return shotCooldownLeft <= 0;
     }
 
     public void shoot() {
-        lastShotTime = System.currentTimeMillis();
+        shotCooldownLeft = shotCooldown;
     }
 
     public void takeDamage() {
         if (!invincible) {
             health--;
-            activateInvincibility(2000);
+            activateInvincibility(120); // 2 s
         }
     }
 
-    public void activateInvincibility(long duration) {
+    public void activateInvincibility(int ticks) {
         invincible = true;
-        invincibleEndTime = System.currentTimeMillis() + duration;
+        invincibleTicksLeft = ticks;
     }
 
-    public void draw(Graphics g) {
+    public static void draw(Graphics g, Sprite sprite, int x, int y, int health, boolean invincible) {
         if (!invincible || (System.currentTimeMillis() / 100) % 2 == 0) {
-            g.drawImage(sprites[currentSprite], x, y, 50, 60, null);
+            sprite.draw(g, x, y); // sprites come pre-scaled from loadSprites
         }
-        drawHealthBar(g);
+        drawHealthBar(g, x, y, health);
     }
 
-    private void drawHealthBar(Graphics g) {
+    private static void drawHealthBar(Graphics g, int x, int y, int health) {
         g.setColor(Color.RED);
-        g.fillRect(x, y - 15, 50, 5);
+        g.fillRect(x, y - 15, WIDTH, 5);
         g.setColor(Color.GREEN);
-        g.fillRect(x, y - 15, (int)(50 * ((double)health / 3)), 5);
+        g.fillRect(x, y - 15, (int)(WIDTH * ((double)health / 3)), 5);
     }
 
-    public Rectangle getHitbox() {
-        return new Rectangle(x, y, 50, 60);
+    public int getCenterX() {
+        return x + WIDTH / 2;
     }
 
-    public int getCenterX() {
-        return x + 25;
+    public int getX() {
+        return x;
     }
 
     public int getY() {
         return y;
     }
 
+    public int getPrevX() {
+        return prevX;
+    }
+
+    public int getPrevY() {
+        return prevY;
+    }
+
+    public int getCurrentSprite() {
+        return currentSprite;
+    }
+
     public int getHealth() {
         return health;
     }
@@ -151,6 +165,10 @@ public class Player {
         return shipType;
     }
 
+    public CollisionMask getMask() {
+        return mask;
+    }
+
     public boolean isInvincible() {
         return invincible;
     }
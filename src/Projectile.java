@@ -1,40 +1,41 @@
 // Projectile.java
 import java.awt.*;
 
+// Projectile archetype: spawn/draw helpers for rows of EntityStore.projectiles
 public class Projectile {
-    private int x, y;
-    private final int speed = 10;
-    private final int width = 5;
-    private final int height = 15;
-    private boolean active = true;
-    private final Color color = Color.YELLOW;
+    public static final int WIDTH = 5;
+    public static final int HEIGHT = 15;
+    private static final int SPEED = 10;
+    private static final Color COLOR = Color.YELLOW;
+    // Drawn as a filled rectangle, so every pixel is solid
+    public static final CollisionMask MASK = CollisionMask.solid(WIDTH, HEIGHT);
 
-    public Projectile(int startX, int startY) {
-        this.x = startX - width / 2;
-        this.y = startY;
+    public static int spawn(EntityTable table, int centerX, int startY) {
+        int handle = table.create();
+        int row = table.rowOf(handle);
+        table.x[row] = centerX - WIDTH / 2;
+        table.y[row] = startY;
+        table.prevX[row] = table.x[row];
+        table.prevY[row] = startY;
+        table.width[row] = WIDTH;
+        table.height[row] = HEIGHT;
+        table.vy[row] = -SPEED;
+        table.health[row] = 1;
+        table.maxHealth[row] = 1;
+        return handle;
     }
 
-    public void update() {
-        y -= speed;
-        if (y < 0) {
-            active = false;
+    // Projectiles die once they leave the top of the screen
+    public static void expire(EntityTable table) {
+        for (int i = 0; i < table.size; i++) {
+            if (table.y[i] < 0) {
+                table.health[i] = 0;
+            }
         }
     }
 
-    public void draw(Graphics g) {
-        g.setColor(color);
-        g.fillRect(x, y, width, height);
+    public static void draw(Graphics g, int x, int y) {
+        g.setColor(COLOR);
+        g.fillRect(x, y, WIDTH, HEIGHT);
     }
-
-    public Rectangle getHitbox() {
-        return new Rectangle(x, y, width, height);
-    }
-
-    public boolean isActive() {
-        return active;
-    }
-
-    public void setActive(boolean active) {
-        this.active = active;
-    }
-}
\ No newline at end of file
+}
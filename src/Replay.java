@@ -0,0 +1,175 @@
+// Replay.java
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// A recorded game: the world seed and setup, then one input bitmask per tick stored as
+// (mask, run length) pairs, then the final tick count, score, level and state hash so a
+// playback can check it ended up in exactly the same place.
+//
+// java -Djava.awt.headless=true Replay <file.jgr>  replays a file and verifies the result
+public class Replay {
+    private static final int MAGIC = 0x4A475250; // "JGRP"
+    // 2: hits are pixel-accurate, so version 1 games no longer replay the same
+    private static final int VERSION = 2;
+    private static final int END_OF_RUNS = 0xFF;
+
+    final long seed;
+    final int difficulty;
+    final int shipType;
+    final int width;
+    final int height;
+    final byte[] runs;
+    final long ticks;
+    final int score;
+    final int level;
+    final long stateHash;
+
+    Replay(long seed, int difficulty, int shipType, int width, int height, byte[] runs,
+           long ticks, int score, int level, long stateHash) {
+        this.seed = seed;
+        this.difficulty = difficulty;
+        this.shipType = shipType;
+        this.width = width;
+        this.height = height;
+        this.runs = runs;
+        this.ticks = ticks;
+        this.score = score;
+        this.level = level;
+        this.stateHash = stateHash;
+    }
+
+    public void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(seed);
+            out.writeInt(difficulty);
+            out.writeInt(shipType);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.write(runs);
+            out.writeByte(END_OF_RUNS);
+            out.writeLong(ticks);
+            out.writeInt(score);
+            out.writeInt(level);
+            out.writeLong(stateHash);
+        }
+    }
+
+    public static Replay read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a replay file: " + file);
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported replay version " + version);
+            }
+            long seed = in.readLong();
+            int difficulty = in.readInt();
+            int shipType = in.readInt();
+            int width = in.readInt();
+            int height = in.readInt();
+            if (width <= 50 || height <= 0) {
+                // GameWorld does not step a playfield this small, so the replay could never finish
+                throw new IOException("Bad playfield size " + width + "x" + height + " in " + file);
+            }
+
+            ByteArrayOutputStream runs = new ByteArrayOutputStream();
+            int mask;
+            while ((mask = in.readUnsignedByte()) != END_OF_RUNS) {
+                runs.write(mask);
+                int b;
+                do {
+                    b = in.readUnsignedByte();
+                    runs.write(b);
+                } while ((b & 0x80) != 0);
+            }
+            return new Replay(seed, difficulty, shipType, width, height, runs.toByteArray(),
+                    in.readLong(), in.readInt(), in.readInt(), in.readLong());
+        }
+    }
+
+    // Feeds the recorded masks back one tick at a time; returns 0 once they run out
+    public InputSource playback() {
+        return new InputSource() {
+            private int position = 0;
+            private int mask = 0;
+            private int remaining = 0;
+
+            @Override
+            public int poll() {
+                if (remaining == 0) {
+                    if (position >= runs.length) {
+                        return 0;
+                    }
+                    mask = runs[position++] & 0xFF;
+                    int shift = 0;
+                    int b;
+                    do {
+                        b = runs[position++] & 0xFF;
+                        remaining |= (b & 0x7F) << shift;
+                        shift += 7;
+                    } while ((b & 0x80) != 0);
+                }
+                remaining--;
+                return mask;
+            }
+        };
+    }
+
+    // Re-runs the recording through a fresh world, as fast as it will go, colliding with the game's own masks
+    public GameWorld simulate() {
+        return simulate(ResourceManager.getCollisionMasks(shipType));
+    }
+
+    public GameWorld simulate(CollisionMasks masks) {
+        GameWorld world = new GameWorld(width, height, difficulty, shipType, masks, playback(), GameEvents.NONE, seed);
+        while (world.getTickCount() < ticks) {
+            long before = world.getTickCount();
+            world.tick();
+            if (world.getTickCount() == before) {
+                break; // the world refused to step; matches() then reports the mismatch
+            }
+        }
+        return world;
+    }
+
+    public boolean matches(GameWorld world) {
+        return world.getTickCount() == ticks && world.getScore() == score
+                && world.getLevelManager().getCurrentLevel() == level && world.stateHash() == stateHash;
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length == 0) {
+            System.err.println("Usage: Replay <file.jgr>...");
+            System.exit(2);
+        }
+        boolean allMatch = true;
+        for (String arg : args) {
+            Replay replay;
+            try {
+                replay = read(Paths.get(arg));
+            } catch (IOException e) {
+                System.err.println(arg + ": " + e.getMessage());
+                allMatch = false;
+                continue;
+            }
+            long start = System.nanoTime();
+            GameWorld world = replay.simulate();
+            long elapsed = System.nanoTime() - start;
+            boolean match = replay.matches(world);
+            allMatch &= match;
+            System.out.printf("%s: %d ticks in %.1f ms, score %d (recorded %d), level %d, %s%n",
+                    arg, world.getTickCount(), elapsed / 1e6, world.getScore(), replay.score,
+                    world.getLevelManager().getCurrentLevel(), match ? "verified" : "MISMATCH");
+        }
+        System.exit(allMatch ? 0 : 1);
+    }
+}
@@ -0,0 +1,50 @@
+// ReplayRecorder.java
+import java.io.ByteArrayOutputStream;
+
+// Wraps the real input and remembers every mask the simulation polled, run-length encoded
+public class ReplayRecorder implements InputSource {
+    private final InputSource source;
+    private final ByteArrayOutputStream runs = new ByteArrayOutputStream();
+    private int currentMask = -1;
+    private int runLength = 0;
+
+    public ReplayRecorder(InputSource source) {
+        this.source = source;
+    }
+
+    @Override
+    public int poll() {
+        int mask = source.poll();
+        if (mask == currentMask) {
+            runLength++;
+        } else {
+            flushRun();
+            currentMask = mask;
+            runLength = 1;
+        }
+        return mask;
+    }
+
+    private void flushRun() {
+        if (runLength == 0) {
+            return;
+        }
+        runs.write(currentMask);
+        int length = runLength;
+        while (length >= 0x80) {
+            runs.write((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        runs.write(length);
+        runLength = 0;
+    }
+
+    // Call from the simulation thread (or once it has stopped)
+    public Replay finish(GameWorld world, int difficulty, int shipType) {
+        flushRun();
+        currentMask = -1;
+        return new Replay(world.getSeed(), difficulty, shipType, world.getWidth(), world.getHeight(),
+                runs.toByteArray(), world.getTickCount(), world.getScore(),
+                world.getLevelManager().getCurrentLevel(), world.stateHash());
+    }
+}
@@ -4,69 +4,274 @@ import javax.sound.sampled.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.*;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 public class ResourceManager {
-    private static final Map<String, Image> images = new HashMap<>();
-    private static final Map<String, Clip> sounds = new HashMap<>();
+    // Source images and sounds by path, scaled images by "path@WxH" (converted once to the screen's
+    // format so Java2D can cache them in VRAM). -Djetgame.assetCacheMB sets the budget.
+    private static final AssetCache cache = new AssetCache(Long.getLong("jetgame.assetCacheMB", 32) * 1024 * 1024);
+    private static final Map<String, Sprite> sprites = new HashMap<>();
+    // Collision masks by "path@WxH"; a few hundred bytes each and needed every game, so never evicted.
+    // Concurrent rather than under the class lock, so building one never waits on the atlas.
+    private static final Map<String, CollisionMask> masks = new ConcurrentHashMap<>();
+    // Pre-decoded assets from AssetPacker; null when there is no pack and everything comes from the classpath
+    private static final AssetPack pack = AssetPack.openDefault();
+    private static final int ATLAS_PAGE_SIZE = 256;
+    private static SpriteAtlas atlas;
 
-    public static void preloadResources() {
-        // Preload images
-        loadImage("/background.png");
-        loadImage("/game_icon.png");
+    // What the menu needs before it can be shown
+    public static List<AssetLoader.Task> menuAssets() {
+        List<AssetLoader.Task> tasks = new ArrayList<>();
+        tasks.add(imageTask("/game_icon.png"));
+        tasks.add(soundTask("/button_hover.wav"));
+        tasks.add(soundTask("/button_click.wav"));
+        return tasks;
+    }
 
+    // Everything else; loads while the player is in the menu
+    public static List<AssetLoader.Task> gameAssets() {
+        List<AssetLoader.Task> tasks = new ArrayList<>();
         for (int i = 0; i < 3; i++) {
-            loadImage("/ship_" + i + ".png");
-            loadImage("/enemy_" + (i == 0 ? "basic" : i == 1 ? "fast" : "tank") + ".png");
+            String ship = "/ship_" + i + ".png";
+            tasks.add(scaledTask(ship, Player.WIDTH, Player.HEIGHT));
+            tasks.add(scaledTask(ship, GameRenderer.LIFE_ICON_WIDTH, GameRenderer.LIFE_ICON_HEIGHT));
+            tasks.add(scaledTask(Enemy.imagePath(i), Enemy.size(i), Enemy.size(i)));
+            tasks.add(maskTask(ship, Player.WIDTH, Player.HEIGHT));
+            tasks.add(maskTask(Enemy.imagePath(i), Enemy.size(i), Enemy.size(i)));
+        }
+        for (String sound : new String[] { "/game_start.wav", "/shoot.wav", "/explosion.wav", "/hit.wav",
+                "/player_hit.wav", "/game_over.wav", "/level_up.wav" }) {
+            tasks.add(soundTask(sound));
+        }
+        return tasks;
+    }
+
+    private static AssetLoader.Task imageTask(String filename) {
+        return AssetLoader.task(filename, () -> getImage(filename));
+    }
+
+    private static AssetLoader.Task scaledTask(String filename, int width, int height) {
+        return AssetLoader.task(filename + "@" + width + "x" + height, () -> getScaledImage(filename, width, height));
+    }
+
+    private static AssetLoader.Task maskTask(String filename, int width, int height) {
+        return AssetLoader.task(filename + "@" + width + "x" + height + " mask",
+                () -> getCollisionMask(filename, width, height));
+    }
+
+    private static AssetLoader.Task soundTask(String filename) {
+        return AssetLoader.task(filename, () -> getSoundBuffer(filename));
+    }
+
+    // Keeps the scene's assets (task names are cache keys) resident; anything else may be evicted
+    public static void enterScene(List<AssetLoader.Task> assets) {
+        List<String> keys = new ArrayList<>(assets.size());
+        for (AssetLoader.Task task : assets) {
+            keys.add(task.name);
         }
+        cache.pinScene(keys);
+    }
 
-        // Preload sounds
-        loadSound("/game_start.wav");
-        loadSound("/shoot.wav");
-        loadSound("/explosion.wav");
-        loadSound("/hit.wav");
-        loadSound("/player_hit.wav");
-        loadSound("/game_over.wav");
-        loadSound("/level_up.wav");
-        loadSound("/button_hover.wav");
-        loadSound("/button_click.wav");
+    // Decodes are timed for StartupMetrics; cache hits are not
+    private static <T> T load(String key, Function<String, T> loader) {
+        return cache.get(key, k -> {
+            long start = System.nanoTime();
+            T value = loader.apply(k);
+            StartupMetrics.assetDecoded(k, System.nanoTime() - start);
+            return value;
+        });
     }
 
     public static Image getImage(String filename) {
-        if (!images.containsKey(filename)) {
-            loadImage(filename);
+        return load(filename, ResourceManager::loadImage);
+    }
+
+    // The image at exactly width x height, so callers can draw it unscaled with drawImage(img, x, y, null)
+    public static BufferedImage getScaledImage(String filename, int width, int height) {
+        // Source fetched first so the scaling time is recorded on its own
+        Image source = getImage(filename);
+        return load(filename + "@" + width + "x" + height, key -> scale(source, width, height));
+    }
+
+    // A handle into the sprite atlas for the image at width x height. Images the atlas wasn't built
+    // with get a standalone sprite of their own.
+    public static synchronized Sprite getSprite(String filename, int width, int height) {
+        if (atlas == null) {
+            atlas = buildAtlas();
+        }
+        String key = filename + "@" + width + "x" + height;
+        Sprite sprite = atlas.get(key);
+        if (sprite == null) {
+            sprite = sprites.get(key);
+            if (sprite == null) {
+                BufferedImage image = getScaledImage(filename, width, height);
+                sprite = new Sprite(image, 0, 0, width, height);
+                sprites.put(key, sprite);
+            }
+        }
+        return sprite;
+    }
+
+    // The solid pixels of the image at width x height, built from the source's alpha rather than the
+    // scaled image so the simulation gets the same mask with or without a display
+    public static CollisionMask getCollisionMask(String filename, int width, int height) {
+        return masks.computeIfAbsent(filename + "@" + width + "x" + height, key -> {
+            Image source = getImage(filename);
+            long start = System.nanoTime();
+            CollisionMask mask = CollisionMask.fromAlpha(source, width, height);
+            StartupMetrics.assetDecoded(key + " mask", System.nanoTime() - start);
+            return mask;
+        });
+    }
+
+    // Everything a GameWorld flying this ship collides with
+    public static CollisionMasks getCollisionMasks(int shipType) {
+        CollisionMask[] enemies = new CollisionMask[Enemy.TYPES];
+        for (int type = 0; type < enemies.length; type++) {
+            enemies[type] = getCollisionMask(Enemy.imagePath(type), Enemy.size(type), Enemy.size(type));
         }
-        return images.getOrDefault(filename, createPlaceholderImage());
+        return new CollisionMasks(getCollisionMask(Player.imagePath(shipType), Player.WIDTH, Player.HEIGHT), enemies);
     }
 
-    public static Clip getSound(String filename) {
-        if (!sounds.containsKey(filename)) {
-            loadSound(filename);
+    // Every ship and enemy at the sizes the game draws them
+    private static SpriteAtlas buildAtlas() {
+        SpriteAtlas.Builder builder = new SpriteAtlas.Builder(ATLAS_PAGE_SIZE);
+        for (int i = 0; i < 3; i++) {
+            String ship = "/ship_" + i + ".png";
+            addToAtlas(builder, ship, Player.WIDTH, Player.HEIGHT);
+            addToAtlas(builder, ship, GameRenderer.LIFE_ICON_WIDTH, GameRenderer.LIFE_ICON_HEIGHT);
+            addToAtlas(builder, Enemy.imagePath(i), Enemy.size(i), Enemy.size(i));
         }
-        return sounds.get(filename);
+        return builder.build();
     }
 
-    private static void loadImage(String filename) {
-        try {
-            BufferedImage image = ImageIO.read(ResourceManager.class.getResourceAsStream( filename));
-            images.put(filename, image);
+    private static void addToAtlas(SpriteAtlas.Builder builder, String filename, int width, int height) {
+        builder.add(filename + "@" + width + "x" + height, getScaledImage(filename, width, height));
+    }
+
+    // Decoded PCM for AudioMixer; null if the file is missing or unreadable
+    public static SoundBuffer getSoundBuffer(String filename) {
+        if (!filename.startsWith("/")) {
+            filename = "/" + filename;
+        }
+        return load(filename, ResourceManager::loadSoundBuffer);
+    }
+
+    private static SoundBuffer loadSoundBuffer(String filename) {
+        if (pack != null) {
+            SoundBuffer packed = pack.sound(filename);
+            if (packed != null) {
+                return packed;
+            }
+        }
+        SoundBuffer buffer = null;
+        try (InputStream in = openResource(filename)) {
+            if (in != null) {
+                buffer = SoundBuffer.load(filename, in);
+            }
         } catch (Exception e) {
-            System.err.println("Could not load image: " + filename);
-            images.put(filename, createPlaceholderImage());
+            System.err.println("Could not decode sound: " + filename + " (" + e.getMessage() + ")");
+        }
+        if (buffer == null) {
+            System.err.println("Could not load sound: " + filename);
+        }
+        return buffer;
+    }
+
+    // A fresh stream of 16-bit signed little-endian PCM; at the file's own rate and channel count, or
+    // the mixer's when it comes from the asset pack
+    public static AudioInputStream openAudioStream(String filename) throws IOException, UnsupportedAudioFileException {
+        if (!filename.startsWith("/")) {
+            filename = "/" + filename;
+        }
+        if (pack != null) {
+            AudioInputStream packed = pack.openAudioStream(filename);
+            if (packed != null) {
+                return packed; // already 16-bit little-endian, at the mixer's rate
+            }
+        }
+        InputStream in = openResource(filename);
+        if (in == null) {
+            throw new FileNotFoundException(filename);
         }
+        AudioInputStream source = AudioSystem.getAudioInputStream(new BufferedInputStream(in));
+        AudioFormat format = source.getFormat();
+        AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+                format.getChannels(), format.getChannels() * 2, format.getSampleRate(), false);
+        return AudioSystem.getAudioInputStream(pcm, source);
     }
 
-    private static void loadSound(String filename) {
+    private static Image loadImage(String filename) {
+        if (pack != null) {
+            BufferedImage packed = pack.image(filename);
+            if (packed != null) {
+                return packed;
+            }
+        }
         try {
-            AudioInputStream audioIn = AudioSystem.getAudioInputStream(
-                    ResourceManager.class.getResourceAsStream( filename));
-            Clip clip = AudioSystem.getClip();
-            clip.open(audioIn);
-            sounds.put(filename, clip);
+            BufferedImage image = ImageIO.read(openResource(filename));
+            if (image != null) {
+                return image;
+            }
         } catch (Exception e) {
-            System.err.println("Could not load sound: " + filename);
+            // fall through to the placeholder
+        }
+        System.err.println("Could not load image: " + filename);
+        return createPlaceholderImage();
+    }
+
+    // The original file: from the pack if it was stored there undecoded, otherwise from the classpath
+    private static InputStream openResource(String filename) {
+        InputStream in = pack != null ? pack.openRaw(filename) : null;
+        return in != null ? in : ResourceManager.class.getResourceAsStream(filename);
+    }
+
+    private static BufferedImage scale(Image source, int width, int height) {
+        int transparency = source instanceof Transparency
+                ? ((Transparency) source).getTransparency() : Transparency.TRANSLUCENT;
+        Image current = source;
+        int w = current.getWidth(null);
+        int h = current.getHeight(null);
+
+        // Halve in steps first: one bilinear pass from 1600px down to 50px skips most source pixels
+        while (w / 2 >= width && h / 2 >= height) {
+            w /= 2;
+            h /= 2;
+            current = drawScaled(current, new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE), w, h);
+        }
+        return drawScaled(current, createCompatibleImage(width, height, transparency), width, height);
+    }
+
+    private static BufferedImage drawScaled(Image source, BufferedImage target, int width, int height) {
+        Graphics2D g = target.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+        return target;
+    }
+
+    public static AssetCache getAssetCache() {
+        return cache;
+    }
+
+    public static AssetPack getAssetPack() {
+        return pack;
+    }
+
+    public static BufferedImage createCompatibleImage(int width, int height, int transparency) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, transparency == Transparency.OPAQUE
+                    ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
         }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(width, height, transparency);
     }
 
     private static Image createPlaceholderImage() {
@@ -0,0 +1,16 @@
+// ScoreStore.java
+import java.util.List;
+
+// Where finished games are kept. DatabaseManager picks one with -Djetgame.scoreStore=jdbc|file.
+public interface ScoreStore {
+    // Creates the table or files if needed; safe to call more than once
+    void initialize() throws Exception;
+
+    // Returns false only if the result could not be accepted. May write it later.
+    boolean save(GameResult result);
+
+    // The best `limit` results, for one difficulty or for all of them when difficulty is null
+    List<GameResult> top(String difficulty, int limit) throws Exception;
+
+    void close();
+}
@@ -0,0 +1,177 @@
+// ScoreWriter.java
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Write-behind queue for game results. Callers only enqueue; a background thread batches whatever
+// is waiting into one write (a JDBC batch, or a run of appends for the file store), retries with
+// backoff while the store is unavailable, and drains the queue on shutdown.
+public class ScoreWriter {
+    public interface ConnectionSource {
+        Connection getConnection() throws SQLException;
+    }
+
+    // Stores one batch; a checked exception means "try again later"
+    public interface Sink {
+        void write(List<GameResult> batch) throws Exception;
+    }
+
+    // Told about each batch after it has been committed, on the writer thread
+    public interface Listener {
+        void saved(List<GameResult> results);
+    }
+
+    private static final String INSERT_SQL =
+            "INSERT INTO game_results (player_name, score, level, difficulty, achieved_on) VALUES (?, ?, ?, ?, ?)";
+    private static final int QUEUE_CAPACITY = 256;
+    private static final int MAX_BATCH = 32;
+    private static final int MAX_ATTEMPTS = 6;
+    private static final long INITIAL_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = 5000;
+    private static final long SHUTDOWN_FLUSH_MS = 3000;
+
+    private final Sink sink;
+    private final Listener listener;
+    private final BlockingQueue<GameResult> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread thread;
+    private volatile boolean closing = false;
+    private volatile long flushDeadline = Long.MAX_VALUE;
+
+    public ScoreWriter(ConnectionSource connections) {
+        this(connections, results -> { });
+    }
+
+    public ScoreWriter(ConnectionSource connections, Listener listener) {
+        this(batch -> insert(connections, batch), listener);
+    }
+
+    public ScoreWriter(Sink sink, Listener listener) {
+        this.sink = sink;
+        this.listener = listener;
+        this.thread = new Thread(this::run, "score-writer");
+        thread.setDaemon(true);
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "score-writer-flush"));
+    }
+
+    // Never blocks; returns false if the queue is full or the writer is shutting down
+    public boolean submit(GameResult result) {
+        if (closing) {
+            return false;
+        }
+        boolean queued = queue.offer(result);
+        if (!queued) {
+            System.err.println("Score queue full, dropping result for " + result.getPlayerName());
+        }
+        return queued;
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    // Stops accepting results and waits (bounded) for the queue to drain
+    public void close() {
+        flushDeadline = System.currentTimeMillis() + SHUTDOWN_FLUSH_MS;
+        closing = true;
+        thread.interrupt();
+        try {
+            thread.join(SHUTDOWN_FLUSH_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            System.err.println(queue.size() + " game results could not be saved before exit");
+        }
+    }
+
+    private void run() {
+        List<GameResult> batch = new ArrayList<>(MAX_BATCH);
+        while (!closing || !queue.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    GameResult first = closing ? queue.poll() : queue.take();
+                    if (first == null) {
+                        break;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                }
+                writeWithRetry(batch);
+                batch.clear();
+            } catch (RuntimeException e) {
+                System.err.println("Error saving " + batch.size() + " score(s): " + e);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // close() wakes us up to flush; keep going until the queue is empty
+                if (!closing) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void writeWithRetry(List<GameResult> batch) throws InterruptedException {
+        long backoff = INITIAL_BACKOFF_MS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                sink.write(batch);
+                notifySaved(batch);
+                return;
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                if (attempt >= MAX_ATTEMPTS || System.currentTimeMillis() + backoff > flushDeadline) {
+                    System.err.println("Error saving " + batch.size() + " score(s), giving up: " + e.getMessage());
+                    return;
+                }
+                System.err.println("Error saving score (attempt " + attempt + "), retrying: " + e.getMessage());
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(backoff);
+            } catch (InterruptedException e) {
+                if (!closing) {
+                    throw e;
+                }
+                // close() only interrupts to wake us; keep retrying until the flush deadline
+            }
+            backoff = Math.min(MAX_BACKOFF_MS, backoff * 2);
+        }
+    }
+
+    private void notifySaved(List<GameResult> batch) {
+        try {
+            listener.saved(batch);
+        } catch (RuntimeException e) {
+            System.err.println("Error in score listener: " + e);
+        }
+    }
+
+    private static void insert(ConnectionSource connections, List<GameResult> batch) throws SQLException {
+        try (Connection conn = connections.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+                for (GameResult result : batch) {
+                    stmt.setString(1, result.getPlayerName());
+                    stmt.setInt(2, result.getScore());
+                    stmt.setInt(3, result.getLevel());
+                    stmt.setString(4, result.getDifficulty());
+                    stmt.setTimestamp(5, new Timestamp(result.getAchievedOn()));
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+// SnapshotExchange.java
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Lock-free triple buffer between the simulation (writer) and the renderer (reader).
+// The writer fills its back buffer and swaps it into the middle; the reader swaps the middle
+// out only when it holds something newer. Neither side ever sees a buffer the other is using.
+public class SnapshotExchange {
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;
+
+    private final WorldSnapshot[] buffers = { new WorldSnapshot(), new WorldSnapshot(), new WorldSnapshot() };
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 2;  // writer thread only
+    private int front = 0; // reader thread only
+
+    // Fill every buffer once before either thread starts
+    public void prime(Consumer<WorldSnapshot> writer) {
+        for (WorldSnapshot buffer : buffers) {
+            writer.accept(buffer);
+        }
+    }
+
+    public WorldSnapshot beginWrite() {
+        return buffers[back];
+    }
+
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    public WorldSnapshot acquireLatest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return buffers[front];
+    }
+}
@@ -0,0 +1,84 @@
+// SoundBuffer.java
+import javax.sound.sampled.*;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// A sound decoded once to the mixer's format (44.1 kHz, 16-bit, stereo, interleaved) and shared by
+// every voice that plays it. Immutable after load.
+public class SoundBuffer {
+    final short[] samples;
+    final int frames;
+    final String name;
+
+    SoundBuffer(String name, short[] samples) {
+        this.name = name;
+        this.samples = samples;
+        this.frames = samples.length / AudioMixer.CHANNELS;
+    }
+
+    public static SoundBuffer load(String name, InputStream stream)
+            throws IOException, UnsupportedAudioFileException {
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(new BufferedInputStream(stream))) {
+            AudioFormat format = source.getFormat();
+            // Let Java Sound handle 8-bit/unsigned/big-endian; rate and channel count we do ourselves
+            AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+                    format.getChannels(), format.getChannels() * 2, format.getSampleRate(), false);
+            try (AudioInputStream decoded = AudioSystem.getAudioInputStream(pcm, source)) {
+                short[] raw = toShorts(readAll(decoded));
+                return new SoundBuffer(name, convert(raw, format.getChannels(), format.getSampleRate()));
+            }
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int n;
+        while ((n = in.read(chunk)) > 0) {
+            out.write(chunk, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static short[] toShorts(byte[] bytes) {
+        short[] samples = new short[bytes.length / 2];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) ((bytes[2 * i] & 0xFF) | (bytes[2 * i + 1] << 8));
+        }
+        return samples;
+    }
+
+    // Linear-interpolation resample to the mixer rate, mono duplicated to both sides,
+    // anything beyond stereo keeps only the first two channels
+    static short[] convert(short[] raw, int channels, float sampleRate) {
+        int inFrames = raw.length / channels;
+        if (inFrames == 0) {
+            return new short[0];
+        }
+        double step = sampleRate / AudioMixer.SAMPLE_RATE;
+        int outFrames = (int) Math.floor((inFrames - 1) / step) + 1;
+        short[] out = new short[outFrames * AudioMixer.CHANNELS];
+        for (int f = 0; f < outFrames; f++) {
+            double position = f * step;
+            int i = (int) position;
+            double t = position - i;
+            int next = Math.min(i + 1, inFrames - 1);
+            for (int c = 0; c < AudioMixer.CHANNELS; c++) {
+                int sourceChannel = Math.min(c, channels - 1);
+                double a = raw[i * channels + sourceChannel];
+                double b = raw[next * channels + sourceChannel];
+                out[f * AudioMixer.CHANNELS + c] = (short) Math.round(a + (b - a) * t);
+            }
+        }
+        return out;
+    }
+
+    public int getFrames() { return frames; }
+    public String getName() { return name; }
+
+    public double getSeconds() {
+        return frames / (double) AudioMixer.SAMPLE_RATE;
+    }
+}
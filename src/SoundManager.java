@@ -1,40 +1,61 @@
-import javax.sound.sampled.*;
+import java.util.Map;
 
 public class SoundManager {
     private static int musicVolume = 80;
     private static int soundVolume = 80;
-    private static Clip currentMusic;
 
+    // Effects go through one software mixer: 16 voices, started once
+    private static final AudioMixer mixer = new AudioMixer(16);
+    private static final boolean mixerStarted = mixer.start();
+    // Music is streamed into the same mixer; tracks crossfade over a second
+    private static final int CROSSFADE_MS = 1000;
+    private static final MusicStreamer music = new MusicStreamer(musicVolume / 100f);
+
+    static {
+        mixer.setMusic(music);
+    }
+
+    // When every voice is busy a sound can only take over a voice of equal or lower priority
+    private static final int DEFAULT_PRIORITY = 1;
+    private static final Map<String, Integer> PRIORITIES = Map.of(
+            "/shoot.wav", 0,
+            "/hit.wav", 1,
+            "/button_hover.wav", 1,
+            "/button_click.wav", 2,
+            "/explosion.wav", 2,
+            "/player_hit.wav", 3,
+            "/level_up.wav", 3,
+            "/game_start.wav", 3,
+            "/game_over.wav", 4);
+
+    // Safe from any thread: just queues the sound for the mixer
     public static void playSound(String filename) {
-        Clip clip = ResourceManager.getSound(filename);
-        if (clip != null) {
-            setVolume(clip, soundVolume);
-            clip.setFramePosition(0);
-            clip.start();
+        if (!mixerStarted) {
+            return;
+        }
+        SoundBuffer buffer = ResourceManager.getSoundBuffer(filename);
+        if (buffer != null) {
+            mixer.play(buffer, soundVolume / 100f, PRIORITIES.getOrDefault(buffer.getName(), DEFAULT_PRIORITY));
         }
     }
 
+    public static AudioMixer getMixer() {
+        return mixer;
+    }
+
     public static void playMusic(String filename) {
-        stopMusic();
-        currentMusic = ResourceManager.getSound(filename);
-        if (currentMusic != null) {
-            setVolume(currentMusic, musicVolume);
-            currentMusic.loop(Clip.LOOP_CONTINUOUSLY);
-            currentMusic.start();
+        if (mixerStarted) {
+            music.play(filename, CROSSFADE_MS);
         }
     }
 
     public static void stopMusic() {
-        if (currentMusic != null && currentMusic.isRunning()) {
-            currentMusic.stop();
-        }
+        music.stop(CROSSFADE_MS / 2);
     }
 
     public static void setMusicVolume(int volume) {
         musicVolume = volume;
-        if (currentMusic != null) {
-            setVolume(currentMusic, volume);
-        }
+        music.setVolume(volume / 100f);
     }
 
     public static void setSoundVolume(int volume) {
@@ -43,12 +64,4 @@ public class SoundManager {
 
     public static int getMusicVolume() { return musicVolume; }
     public static int getSoundVolume() { return soundVolume; }
-
-    private static void setVolume(Clip clip, int volume) {
-        if (clip != null && clip.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
-            FloatControl gainControl = (FloatControl) clip.getControl(FloatControl.Type.MASTER_GAIN);
-            float dB = (float) (Math.log(volume / 100.0) * 20.0);
-            gainControl.setValue(dB);
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+// SpatialGrid.java
+import java.util.Arrays;
+
+// Uniform grid broadphase. Items are filed under the cell holding their top-left corner, so an
+// item no larger than one cell can only reach into the cell to its right/below; queries look one
+// cell up and left to cover that. Cell lists are int linked lists kept in insertion order, and a
+// query merges the per-cell runs, so nothing is allocated once the buffers have grown.
+public class SpatialGrid {
+    private static final int EMPTY = -1;
+
+    private final int cellSize;
+    private int columns;
+    private int rows;
+    private int[] heads = new int[0];
+    private int[] tails = new int[0];
+    private int[] next = new int[64];
+    private int[] results = new int[64];
+    private int[] scratch = new int[64];
+    private int[] runStarts = new int[16];
+    private int resultCount;
+
+    public SpatialGrid(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    public void reset(int width, int height) {
+        int newColumns = Math.max(1, (width + cellSize - 1) / cellSize);
+        int newRows = Math.max(1, (height + cellSize - 1) / cellSize);
+        if (newColumns != columns || newRows != rows) {
+            columns = newColumns;
+            rows = newRows;
+            heads = new int[columns * rows];
+            tails = new int[columns * rows];
+        }
+        Arrays.fill(heads, EMPTY);
+    }
+
+    // id must be unique per reset; ids index into the caller's own arrays.
+    // Inserting in ascending id order keeps every cell list sorted.
+    public void insert(int id, int x, int y) {
+        if (id >= next.length) {
+            next = Arrays.copyOf(next, Math.max(id + 1, next.length * 2));
+        }
+        int cell = cellIndex(column(x), row(y));
+        next[id] = EMPTY;
+        if (heads[cell] == EMPTY) {
+            heads[cell] = id;
+        } else {
+            next[tails[cell]] = id;
+        }
+        tails[cell] = id;
+    }
+
+    // Collects every item that may overlap the box, in ascending id order. Returns the count.
+    public int query(int x, int y, int width, int height) {
+        resultCount = 0;
+        int runs = 0;
+        int minColumn = clampColumn(Math.floorDiv(x, cellSize) - 1);
+        int maxColumn = column(x + width);
+        int minRow = clampRow(Math.floorDiv(y, cellSize) - 1);
+        int maxRow = row(y + height);
+
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minColumn; c <= maxColumn; c++) {
+                int id = heads[cellIndex(c, r)];
+                if (id == EMPTY) {
+                    continue;
+                }
+                if (runs == runStarts.length) {
+                    runStarts = Arrays.copyOf(runStarts, runs * 2);
+                }
+                runStarts[runs++] = resultCount;
+                for (; id != EMPTY; id = next[id]) {
+                    if (resultCount == results.length) {
+                        results = Arrays.copyOf(results, results.length * 2);
+                    }
+                    results[resultCount++] = id;
+                }
+            }
+        }
+        mergeRuns(runs);
+        return resultCount;
+    }
+
+    // Bottom-up merge of the sorted per-cell runs, ping-ponging between results and scratch
+    private void mergeRuns(int runs) {
+        if (runs <= 1) {
+            return;
+        }
+        if (scratch.length < results.length) {
+            scratch = new int[results.length];
+        }
+        while (runs > 1) {
+            int merged = 0;
+            for (int r = 0; r < runs; r += 2) {
+                int start = runStarts[r];
+                int middle = r + 1 < runs ? runStarts[r + 1] : resultCount;
+                int end = r + 2 < runs ? runStarts[r + 2] : resultCount;
+                int i = start, j = middle, k = start;
+                while (i < middle && j < end) {
+                    scratch[k++] = results[i] <= results[j] ? results[i++] : results[j++];
+                }
+                while (i < middle) {
+                    scratch[k++] = results[i++];
+                }
+                while (j < end) {
+                    scratch[k++] = results[j++];
+                }
+                runStarts[merged++] = start;
+            }
+            runs = merged;
+            int[] swap = results;
+            results = scratch;
+            scratch = swap;
+        }
+    }
+
+    public int result(int i) {
+        return results[i];
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    // Same semantics as Rectangle.intersects
+    public static boolean overlaps(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        return aw > 0 && ah > 0 && bw > 0 && bh > 0
+                && ax < bx + bw && bx < ax + aw
+                && ay < by + bh && by < ay + ah;
+    }
+
+    private int column(int x) {
+        return clampColumn(Math.floorDiv(x, cellSize));
+    }
+
+    private int row(int y) {
+        return clampRow(Math.floorDiv(y, cellSize));
+    }
+
+    private int clampColumn(int c) {
+        return c < 0 ? 0 : (c >= columns ? columns - 1 : c);
+    }
+
+    private int clampRow(int r) {
+        return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+    }
+
+    private int cellIndex(int column, int row) {
+        return row * columns + column;
+    }
+}
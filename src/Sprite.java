@@ -0,0 +1,28 @@
+// Sprite.java
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+// A region of an atlas page (or a whole standalone image), drawn at its own size
+public class Sprite {
+    final BufferedImage page;
+    final int x;
+    final int y;
+    final int width;
+    final int height;
+
+    Sprite(BufferedImage page, int x, int y, int width, int height) {
+        this.page = page;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    public void draw(Graphics g, int dx, int dy) {
+        g.drawImage(page, dx, dy, dx + width, dy + height, x, y, x + width, y + height, null);
+    }
+
+    public BufferedImage getPage() { return page; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+}
@@ -0,0 +1,102 @@
+// SpriteAtlas.java
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Packs many small images into a few large compatible pages so a frame's blits mostly read from
+// one surface. Shelf packing: tallest first, left to right, a new shelf when a row is full, a new
+// page when the page is full.
+public class SpriteAtlas {
+    private static final int PADDING = 1;
+
+    private final Map<String, Sprite> sprites;
+    private final List<BufferedImage> pages;
+
+    private SpriteAtlas(Map<String, Sprite> sprites, List<BufferedImage> pages) {
+        this.sprites = sprites;
+        this.pages = pages;
+    }
+
+    public Sprite get(String key) {
+        return sprites.get(key);
+    }
+
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    public BufferedImage getPage(int index) {
+        return pages.get(index);
+    }
+
+    public static class Builder {
+        private final int pageSize;
+        private final Map<String, BufferedImage> images = new LinkedHashMap<>();
+
+        public Builder(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public Builder add(String key, BufferedImage image) {
+            images.put(key, image);
+            return this;
+        }
+
+        public SpriteAtlas build() {
+            List<Map.Entry<String, BufferedImage>> order = new ArrayList<>(images.entrySet());
+            order.sort(Comparator.comparingInt((Map.Entry<String, BufferedImage> e) -> e.getValue().getHeight())
+                    .reversed());
+
+            Map<String, Sprite> sprites = new LinkedHashMap<>();
+            List<BufferedImage> pages = new ArrayList<>();
+            BufferedImage page = null;
+            Graphics2D g = null;
+            int shelfX = 0;
+            int shelfY = 0;
+            int shelfHeight = 0;
+
+            for (Map.Entry<String, BufferedImage> entry : order) {
+                BufferedImage image = entry.getValue();
+                int w = image.getWidth() + PADDING;
+                int h = image.getHeight() + PADDING;
+                if (w > pageSize || h > pageSize) {
+                    // Too big to share a page; it gets one to itself
+                    sprites.put(entry.getKey(), new Sprite(image, 0, 0, image.getWidth(), image.getHeight()));
+                    continue;
+                }
+                if (page != null && shelfX + w > pageSize) {
+                    shelfX = 0;
+                    shelfY += shelfHeight;
+                    shelfHeight = 0;
+                }
+                if (page == null || shelfY + h > pageSize) {
+                    if (g != null) {
+                        g.dispose();
+                    }
+                    page = ResourceManager.createCompatibleImage(pageSize, pageSize, Transparency.TRANSLUCENT);
+                    pages.add(page);
+                    g = page.createGraphics();
+                    g.setComposite(AlphaComposite.Src);
+                    shelfX = 0;
+                    shelfY = 0;
+                    shelfHeight = 0;
+                }
+
+                g.drawImage(image, shelfX, shelfY, null);
+                sprites.put(entry.getKey(), new Sprite(page, shelfX, shelfY, image.getWidth(), image.getHeight()));
+                shelfX += w;
+                shelfHeight = Math.max(shelfHeight, h);
+            }
+            if (g != null) {
+                g.dispose();
+            }
+            return new SpriteAtlas(sprites, pages);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+// Starfield.java
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+// Scrolling star background shared by the menu and the game. Each parallax layer's stars are drawn
+// once into a square tile that wraps seamlessly; a frame is just the tiles blitted at the layer's
+// offset, so the cost depends on the view size and not on how many stars there are. The far layer is
+// opaque and clears the view, nearer layers are BITMASK so their blits stay cheap.
+public class Starfield {
+    private static final Color SPACE = Color.BLACK;
+    // Far to near: share of the stars, speed relative to the scroll, size range and brightness
+    private static final double[] LAYER_SHARE = { 0.5, 0.3, 0.2 };
+    private static final double[] LAYER_SPEED = { 0.25, 0.5, 1.0 };
+    // Different per layer so the repeats of one layer never line up with another's
+    private static final int[] LAYER_TILE = { 512, 448, 384 };
+    private static final int[] LAYER_MIN_SIZE = { 1, 1, 2 };
+    private static final int[] LAYER_MAX_SIZE = { 1, 2, 2 };
+    private static final int[] LAYER_GRAY = { 110, 180, 255 };
+
+    // Stars per 256x256 pixels across all layers; about what the old menu drew (100 on 800x600) by default
+    private static final int DEFAULT_DENSITY = Integer.getInteger("jetgame.starDensity", 16);
+    private static Starfield shared;
+
+    private final BufferedImage[] tiles;
+
+    public Starfield(long seed, int density) {
+        Random random = new Random(seed);
+        tiles = new BufferedImage[LAYER_SPEED.length];
+        for (int layer = 0; layer < tiles.length; layer++) {
+            int size = LAYER_TILE[layer];
+            int stars = (int) Math.round(density * LAYER_SHARE[layer] * size * size / (256.0 * 256.0));
+            tiles[layer] = buildTile(random, layer, size, stars);
+        }
+    }
+
+    // One starfield for every screen, so the tiles are only built once
+    public static synchronized Starfield shared() {
+        if (shared == null) {
+            shared = new Starfield(42, DEFAULT_DENSITY);
+        }
+        return shared;
+    }
+
+    private static BufferedImage buildTile(Random random, int layer, int tileSize, int stars) {
+        BufferedImage tile = ResourceManager.createCompatibleImage(tileSize, tileSize,
+                layer == 0 ? Transparency.OPAQUE : Transparency.BITMASK);
+        Graphics2D g = tile.createGraphics();
+        if (layer == 0) {
+            g.setColor(SPACE);
+            g.fillRect(0, 0, tileSize, tileSize);
+        }
+        int gray = LAYER_GRAY[layer];
+        g.setColor(new Color(gray, gray, gray));
+        for (int i = 0; i < stars; i++) {
+            int x = random.nextInt(tileSize);
+            int y = random.nextInt(tileSize);
+            int size = LAYER_MIN_SIZE[layer] + random.nextInt(LAYER_MAX_SIZE[layer] - LAYER_MIN_SIZE[layer] + 1);
+            // Drawn again one tile up and left, so a star crossing the edge continues on the next tile
+            g.fillRect(x, y, size, size);
+            g.fillRect(x - tileSize, y, size, size);
+            g.fillRect(x, y - tileSize, size, size);
+            g.fillRect(x - tileSize, y - tileSize, size, size);
+        }
+        g.dispose();
+        return tile;
+    }
+
+    // Fills the whole view; scroll is the distance travelled in pixels of the nearest layer
+    public void draw(Graphics g, double scroll, int width, int height) {
+        for (int layer = 0; layer < tiles.length; layer++) {
+            BufferedImage tile = tiles[layer];
+            int size = tile.getWidth();
+            int offset = (int) Math.floorMod((long) (scroll * LAYER_SPEED[layer]), (long) size);
+            for (int y = offset - size; y < height; y += size) {
+                for (int x = 0; x < width; x += size) {
+                    g.drawImage(tile, x, y, null);
+                }
+            }
+        }
+    }
+}
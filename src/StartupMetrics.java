@@ -0,0 +1,54 @@
+// StartupMetrics.java
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Startup timings for spotting regressions: time from JVM start to each screen's first frame, and
+// how long each asset took to decode. -Djetgame.assetTimings=true also lists every asset.
+public class StartupMetrics {
+    private static final boolean LIST_ASSETS = Boolean.getBoolean("jetgame.assetTimings");
+    private static final long JVM_START_MS = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private static final Map<String, Long> decodeNanos = new ConcurrentHashMap<>();
+    private static final Map<String, Long> firstFrames = new ConcurrentHashMap<>();
+
+    public static long sinceStartMillis() {
+        return System.currentTimeMillis() - JVM_START_MS;
+    }
+
+    static void assetDecoded(String name, long nanos) {
+        decodeNanos.put(name, nanos);
+    }
+
+    // Call from paintComponent; only the first call per screen is recorded
+    public static void frameShown(String screen) {
+        if (firstFrames.containsKey(screen)) {
+            return;
+        }
+        if (firstFrames.putIfAbsent(screen, sinceStartMillis()) == null) {
+            System.out.println("Startup: first " + screen + " frame at " + firstFrames.get(screen) + " ms");
+        }
+    }
+
+    static void assetsLoaded(int count, long wallNanos, int threads) {
+        long total = 0;
+        for (long nanos : decodeNanos.values()) {
+            total += nanos;
+        }
+        System.out.printf(Locale.ROOT, "Startup: %d assets in %.0f ms on %d threads (%.0f ms of decoding), done at %d ms%n",
+                count, wallNanos / 1e6, threads, total / 1e6, sinceStartMillis());
+        if (LIST_ASSETS) {
+            List<Map.Entry<String, Long>> entries = new ArrayList<>(decodeNanos.entrySet());
+            entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+            for (Map.Entry<String, Long> entry : entries) {
+                System.out.printf(Locale.ROOT, "  %8.2f ms  %s%n", entry.getValue() / 1e6, entry.getKey());
+            }
+        }
+    }
+
+    public static long getDecodeNanos(String name) {
+        return decodeNanos.getOrDefault(name, 0L);
+    }
+}
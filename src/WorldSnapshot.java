@@ -0,0 +1,106 @@
+// WorldSnapshot.java
+// Copy of the world taken at the end of a tick. Buffers are recycled through SnapshotExchange:
+// the simulation only writes one it owns, the render side only reads one it owns.
+public final class WorldSnapshot {
+    long capturedAt;
+    long tick;
+
+    int enemyCount;
+    int[] enemyType = new int[0];
+    int[] enemyX = new int[0];
+    int[] enemyPrevY = new int[0];
+    int[] enemyY = new int[0];
+    int[] enemyWidth = new int[0];
+    int[] enemyHeight = new int[0];
+    int[] enemyHealth = new int[0];
+    int[] enemyMaxHealth = new int[0];
+
+    int projectileCount;
+    int[] projectileX = new int[0];
+    int[] projectilePrevY = new int[0];
+    int[] projectileY = new int[0];
+
+    int playerPrevX, playerPrevY;
+    int playerX, playerY;
+    int playerSprite;
+    int playerHealth;
+    boolean playerInvincible;
+
+    int prevScroll;
+    int scroll;
+    int score;
+    int level;
+    int enemiesDefeated;
+    int enemiesToNextLevel;
+    boolean levelTransition;
+    boolean gameOver;
+
+    void capture(long tick, EntityStore store, Player player,
+                 int prevScroll, int scroll, int score, LevelManager levelManager,
+                 boolean levelTransition, boolean gameOver) {
+        this.capturedAt = System.nanoTime();
+        this.tick = tick;
+
+        // Dead rows are already swept at the end of each tick, so the tables copy over as-is
+        EntityTable enemies = store.enemies;
+        enemyCount = enemies.size;
+        if (enemyType.length < enemyCount) {
+            int capacity = Math.max(enemyCount, enemyType.length * 2);
+            enemyType = new int[capacity];
+            enemyX = new int[capacity];
+            enemyPrevY = new int[capacity];
+            enemyY = new int[capacity];
+            enemyWidth = new int[capacity];
+            enemyHeight = new int[capacity];
+            enemyHealth = new int[capacity];
+            enemyMaxHealth = new int[capacity];
+        }
+        System.arraycopy(enemies.type, 0, enemyType, 0, enemyCount);
+        System.arraycopy(enemies.x, 0, enemyX, 0, enemyCount);
+        System.arraycopy(enemies.prevY, 0, enemyPrevY, 0, enemyCount);
+        System.arraycopy(enemies.y, 0, enemyY, 0, enemyCount);
+        System.arraycopy(enemies.width, 0, enemyWidth, 0, enemyCount);
+        System.arraycopy(enemies.height, 0, enemyHeight, 0, enemyCount);
+        System.arraycopy(enemies.health, 0, enemyHealth, 0, enemyCount);
+        System.arraycopy(enemies.maxHealth, 0, enemyMaxHealth, 0, enemyCount);
+
+        EntityTable projectiles = store.projectiles;
+        projectileCount = projectiles.size;
+        if (projectileX.length < projectileCount) {
+            int capacity = Math.max(projectileCount, projectileX.length * 2);
+            projectileX = new int[capacity];
+            projectilePrevY = new int[capacity];
+            projectileY = new int[capacity];
+        }
+        System.arraycopy(projectiles.x, 0, projectileX, 0, projectileCount);
+        System.arraycopy(projectiles.prevY, 0, projectilePrevY, 0, projectileCount);
+        System.arraycopy(projectiles.y, 0, projectileY, 0, projectileCount);
+
+        playerPrevX = player.getPrevX();
+        playerPrevY = player.getPrevY();
+        playerX = player.getX();
+        playerY = player.getY();
+        playerSprite = player.getCurrentSprite();
+        playerHealth = player.getHealth();
+        playerInvincible = player.isInvincible();
+
+        this.prevScroll = prevScroll;
+        this.scroll = scroll;
+        this.score = score;
+        this.level = levelManager.getCurrentLevel();
+        this.enemiesDefeated = levelManager.getEnemiesDefeated();
+        this.enemiesToNextLevel = levelManager.getEnemiesToNextLevel();
+        this.levelTransition = levelTransition;
+        this.gameOver = gameOver;
+    }
+
+    // Fraction of a tick elapsed since this snapshot was taken, clamped to [0, 1]
+    double alpha(long now) {
+        double alpha = (double) (now - capturedAt) / GameLoop.TICK_NANOS;
+        return Math.max(0.0, Math.min(1.0, alpha));
+    }
+
+    static int lerp(int from, int to, double alpha) {
+        return (int) Math.round(from + (to - from) * alpha);
+    }
+}